@@ -1,6 +1,8 @@
 package com.logicalastrology;
 
 import com.logicalastrology.config.AiProperties;
+import com.logicalastrology.config.ScraperProperties;
+import com.logicalastrology.config.WebhookProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -8,7 +10,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties(AiProperties.class)
+@EnableConfigurationProperties({AiProperties.class, ScraperProperties.class, WebhookProperties.class})
 public class LogicalAstrologyApplication {
     public static void main(String[] args) {
         SpringApplication.run(LogicalAstrologyApplication.class, args);
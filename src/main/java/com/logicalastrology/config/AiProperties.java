@@ -15,6 +15,13 @@ public class AiProperties {
     private String model = "gpt-3.5-turbo";
     private double temperature = 0.3;
     private Duration timeout = Duration.ofSeconds(30);
+    private int analysisConcurrency = 4;
+    private int batchSize = 4;
+    private RateLimit rateLimit = new RateLimit();
+    private ResponseCache responseCache = new ResponseCache();
+    private Http http = new Http();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Prompt prompt = new Prompt();
 
     public boolean isEnabled() {
         return enabled;
@@ -63,4 +70,278 @@ public class AiProperties {
     public void setTimeout(Duration timeout) {
         this.timeout = timeout;
     }
+
+    public int getAnalysisConcurrency() {
+        return analysisConcurrency;
+    }
+
+    public void setAnalysisConcurrency(int analysisConcurrency) {
+        this.analysisConcurrency = analysisConcurrency;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Prompt getPrompt() {
+        return prompt;
+    }
+
+    public void setPrompt(Prompt prompt) {
+        this.prompt = prompt;
+    }
+
+    /**
+     * Orçamento de chamadas ao provedor. Valores menores ou iguais a zero desativam o respectivo limite.
+     */
+    public static class RateLimit {
+
+        private int requestsPerMinute = 30;
+        private int tokensPerMinute;
+        private int maxRetries = 2;
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public int getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(int tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    /**
+     * Cache persistente de respostas da IA por hash do prompt.
+     */
+    public static class ResponseCache {
+
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofDays(7);
+        private int maxEntries = 2000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Cliente HTTP do provedor: conexões reaproveitadas (keep-alive/HTTP2) e requisições simultâneas limitadas.
+     * O prazo de cada chamada continua em {@code ai.timeout}; {@code thematicTimeout} só muda o das previsões
+     * temáticas e, se não for informado, também vale {@code ai.timeout}.
+     */
+    public static class Http {
+
+        private int maxConnections = 8;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration thematicTimeout;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getThematicTimeout() {
+            return thematicTimeout;
+        }
+
+        public void setThematicTimeout(Duration thematicTimeout) {
+            this.thematicTimeout = thematicTimeout;
+        }
+    }
+
+    /**
+     * Disjuntor do endpoint de IA. As taxas são percentuais sobre as últimas {@code windowSize} chamadas.
+     */
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+        private int windowSize = 20;
+        private int minimumCalls = 5;
+        private double failureRateThreshold = 50;
+        private Duration slowCallDuration = Duration.ofSeconds(10);
+        private double slowCallRateThreshold = 80;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+
+    /**
+     * Preparação dos textos das fontes: orçamento de tokens por signo (zero desativa o corte) e
+     * limite de similaridade para descartar textos quase idênticos.
+     */
+    public static class Prompt {
+
+        private int maxInputTokens = 1500;
+        private double similarityThreshold = 0.8;
+        private int shingleSize = 3;
+
+        public int getMaxInputTokens() {
+            return maxInputTokens;
+        }
+
+        public void setMaxInputTokens(int maxInputTokens) {
+            this.maxInputTokens = maxInputTokens;
+        }
+
+        public double getSimilarityThreshold() {
+            return similarityThreshold;
+        }
+
+        public void setSimilarityThreshold(double similarityThreshold) {
+            this.similarityThreshold = similarityThreshold;
+        }
+
+        public int getShingleSize() {
+            return shingleSize;
+        }
+
+        public void setShingleSize(int shingleSize) {
+            this.shingleSize = shingleSize;
+        }
+    }
 }
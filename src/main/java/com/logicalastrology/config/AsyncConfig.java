@@ -0,0 +1,95 @@
+package com.logicalastrology.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Pool limitado usado para disparar as requisições de scraping em paralelo.
+     * As threads ociosas são liberadas, já que o scraping roda poucas vezes ao dia.
+     */
+    @Bean(name = "scraperExecutor")
+    public ThreadPoolTaskExecutor scraperExecutor(ScraperProperties properties) {
+        int threads = Math.max(1, properties.getThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("scraper-");
+        return executor;
+    }
+
+    /**
+     * Thread única que coordena as execuções de scraping em segundo plano (inicialização, agendador
+     * e endpoint manual), sem ocupar uma vaga do pool que faz as requisições.
+     */
+    @Bean(name = "scrapingJobExecutor")
+    public ThreadPoolTaskExecutor scrapingJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("scraping-job-");
+        return executor;
+    }
+
+    /**
+     * Pool que gera as análises dos signos em paralelo; o tamanho limita quantas chamadas à IA
+     * ficam em andamento ao mesmo tempo ({@code ai.analysis-concurrency}).
+     */
+    @Bean(name = "analiseExecutor")
+    public ThreadPoolTaskExecutor analiseExecutor(AiProperties aiProperties) {
+        int threads = Math.max(1, aiProperties.getAnalysisConcurrency());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("analise-");
+        return executor;
+    }
+
+    /**
+     * Pool que gera, fora da requisição do webhook, as mensagens das previsões temáticas pagas.
+     */
+    @Bean(name = "previsaoExecutor")
+    public ThreadPoolTaskExecutor previsaoExecutor(@Value("${previsao.mensagem.concurrency:2}") int concurrency) {
+        int threads = Math.max(1, concurrency);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("previsao-");
+        return executor;
+    }
+
+    /**
+     * Pool que processa as notificações de pagamento da caixa de entrada ({@code webhook.concurrency}).
+     */
+    @Bean(name = "webhookExecutor")
+    public ThreadPoolTaskExecutor webhookExecutor(WebhookProperties properties) {
+        int threads = Math.max(1, properties.getConcurrency());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("webhook-");
+        return executor;
+    }
+
+    /**
+     * Pool que cria as preferências do Mercado Pago fora da requisição de checkout.
+     */
+    @Bean(name = "preferenciaExecutor")
+    public ThreadPoolTaskExecutor preferenciaExecutor(@Value("${mercadopago.preference-pool.concurrency:2}") int concurrency) {
+        int threads = Math.max(1, concurrency);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("preferencia-");
+        return executor;
+    }
+}
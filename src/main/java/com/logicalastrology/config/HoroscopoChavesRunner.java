@@ -0,0 +1,34 @@
+package com.logicalastrology.config;
+
+import com.logicalastrology.repository.HoroscopoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HoroscopoChavesRunner implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HoroscopoChavesRunner.class);
+
+    private final HoroscopoRepository repository;
+
+    public HoroscopoChavesRunner(HoroscopoRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Preenche as chaves de signo e fonte dos horóscopos antigos antes do scraping inicial,
+     * que já consulta pelas colunas normalizadas.
+     */
+    @Override
+    public void run(String... args) {
+        int atualizados = repository.preencherChaves();
+        if (atualizados > 0) {
+            LOGGER.info("Chaves normalizadas preenchidas em {} horóscopos", atualizados);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.logicalastrology.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "scraper")
+public class ScraperProperties {
+
+    private int threads = 36;
+    private int maxConcurrentPerSource = 12;
+    private Duration minIntervalPerSource = Duration.ofMillis(250);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private Duration deadline = Duration.ofSeconds(20);
+    private boolean runOnStartup = true;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getMaxConcurrentPerSource() {
+        return maxConcurrentPerSource;
+    }
+
+    public void setMaxConcurrentPerSource(int maxConcurrentPerSource) {
+        this.maxConcurrentPerSource = maxConcurrentPerSource;
+    }
+
+    public Duration getMinIntervalPerSource() {
+        return minIntervalPerSource;
+    }
+
+    public void setMinIntervalPerSource(Duration minIntervalPerSource) {
+        this.minIntervalPerSource = minIntervalPerSource;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    public boolean isRunOnStartup() {
+        return runOnStartup;
+    }
+
+    public void setRunOnStartup(boolean runOnStartup) {
+        this.runOnStartup = runOnStartup;
+    }
+}
@@ -1,21 +1,35 @@
 package com.logicalastrology.config;
 
 import com.logicalastrology.service.ScraperService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ScraperStartupRunner implements CommandLineRunner {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScraperStartupRunner.class);
+
     private final ScraperService scraperService;
+    private final ScraperProperties properties;
 
-    public ScraperStartupRunner(ScraperService scraperService) {
+    public ScraperStartupRunner(ScraperService scraperService, ScraperProperties properties) {
         this.scraperService = scraperService;
+        this.properties = properties;
     }
 
+    /**
+     * Dispara o scraping inicial em segundo plano para não atrasar a prontidão da aplicação;
+     * enquanto isso a API responde com os dados já gravados. Pares já coletados hoje não são buscados de novo.
+     */
     @Override
     public void run(String... args) {
-        System.out.println("🚀 Executando scraper inicial...");
-        scraperService.executarScraping();
+        if (!properties.isRunOnStartup()) {
+            LOGGER.info("Scraper inicial desabilitado (scraper.run-on-startup=false).");
+            return;
+        }
+        LOGGER.info("Executando scraper inicial em segundo plano...");
+        scraperService.iniciarJob();
     }
 }
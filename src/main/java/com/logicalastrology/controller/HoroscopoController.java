@@ -4,21 +4,30 @@ import com.logicalastrology.dto.AnaliseComparativaDTO;
 import com.logicalastrology.dto.AnaliseSignoDTO;
 import com.logicalastrology.dto.DataRequest;
 import com.logicalastrology.dto.HoroscopoDTO;
+import com.logicalastrology.dto.ScrapingJobDTO;
+import com.logicalastrology.dto.StatusDadosDTO;
 import com.logicalastrology.service.AnaliseSignoService;
 import com.logicalastrology.service.HoroscopoService;
 import com.logicalastrology.service.ScraperService;
+import com.logicalastrology.service.ScrapingJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -30,6 +39,7 @@ public class HoroscopoController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HoroscopoController.class);
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final long STREAM_TIMEOUT_MS = 120_000;
 
     private final HoroscopoService horoscopoService;
     private final AnaliseSignoService analiseSignoService;
@@ -66,6 +76,44 @@ public class HoroscopoController {
         return ResponseEntity.ok(analiseSignoService.analisar(sign, data));
     }
 
+    /**
+     * Mesma análise de {@code /analise/{sign}} via Server-Sent Events: eventos {@code delta} trazem o texto do
+     * resumo conforme a IA o gera e o evento {@code analise} traz o resultado final já gravado.
+     * A data vai como parâmetro ({@code ?data=dd/MM/yyyy}), já que o {@code EventSource} não envia corpo.
+     */
+    @GetMapping(value = "/analise/{sign}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter analisarStream(@PathVariable("sign") String sign,
+                                     @RequestParam(value = "data", required = false) String dataParam) {
+        LocalDate data = resolveDate(dataParam);
+        LOGGER.info("Endpoint /analise/{}/stream chamado para a data {}", sign, data);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        analiseSignoService.analisarStream(sign, data, texto -> enviarEvento(emitter, "delta", texto))
+                .whenComplete((analise, ex) -> {
+                    try {
+                        if (ex != null) {
+                            Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                            LOGGER.warn("Falha na análise em streaming de {}: {}", sign, causa.getMessage());
+                            enviarEvento(emitter, "erro", "Não foi possível gerar a análise.");
+                        } else {
+                            enviarEvento(emitter, "analise", analise);
+                        }
+                    } catch (RuntimeException envio) {
+                        LOGGER.debug("Cliente encerrou o stream da análise de {}: {}", sign, envio.getMessage());
+                    } finally {
+                        emitter.complete();
+                    }
+                });
+        return emitter;
+    }
+
+    private static void enviarEvento(SseEmitter emitter, String nome, Object dados) {
+        try {
+            emitter.send(SseEmitter.event().name(nome).data(dados));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     @GetMapping("/analise/todos")
     public ResponseEntity<List<AnaliseSignoDTO>> analisarTodos(@RequestBody(required = false) DataRequest dataRequest) {
         LocalDate data = resolveDate(dataRequest);
@@ -82,18 +130,39 @@ public class HoroscopoController {
     }
 
     @PostMapping("/scrapper")
-    public ResponseEntity<String> executarScrapper() {
+    public ResponseEntity<ScrapingJobDTO> executarScrapper() {
         LOGGER.info("Endpoint /scrapper chamado para executar scraping manual");
-        scraperService.executarScraping();
-        return ResponseEntity.ok("Scraping executado com sucesso");
+        ScrapingJob job = scraperService.iniciarJob();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/scrapper/jobs/" + job.getId()))
+                .body(job.toDto());
+    }
+
+    @GetMapping("/scrapper/jobs/{id}")
+    public ResponseEntity<ScrapingJobDTO> statusScrapper(@PathVariable("id") String id) {
+        return scraperService.buscarJob(id)
+                .map(job -> ResponseEntity.ok(job.toDto()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job de scraping não encontrado"));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<StatusDadosDTO> status() {
+        return ResponseEntity.ok(StatusDadosDTO.builder()
+                .estado(scraperService.getFreshness().name())
+                .ultimaColeta(scraperService.getUltimaColeta())
+                .build());
     }
 
     private LocalDate resolveDate(DataRequest dataRequest) {
-        if (dataRequest == null || dataRequest.getData() == null || dataRequest.getData().isBlank()) {
+        return resolveDate(dataRequest == null ? null : dataRequest.getData());
+    }
+
+    private LocalDate resolveDate(String data) {
+        if (data == null || data.isBlank()) {
             return LocalDate.now();
         }
         try {
-            return LocalDate.parse(dataRequest.getData(), FORMATTER);
+            return LocalDate.parse(data, FORMATTER);
         } catch (DateTimeParseException ex) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data em formato inválido. Use dd/MM/yyyy.");
         }
@@ -0,0 +1,38 @@
+package com.logicalastrology.controller;
+
+import com.logicalastrology.nlp.AiCircuitBreaker;
+import com.logicalastrology.nlp.AiResponseCache;
+import com.logicalastrology.service.AnaliseCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class MetricasController {
+
+    private final AnaliseCache analiseCache;
+    private final AiResponseCache aiResponseCache;
+    private final AiCircuitBreaker aiCircuitBreaker;
+
+    public MetricasController(AnaliseCache analiseCache,
+                              AiResponseCache aiResponseCache,
+                              AiCircuitBreaker aiCircuitBreaker) {
+        this.analiseCache = analiseCache;
+        this.aiResponseCache = aiResponseCache;
+        this.aiCircuitBreaker = aiCircuitBreaker;
+    }
+
+    @GetMapping("/metricas")
+    public ResponseEntity<Map<String, Object>> metricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("analiseCache", analiseCache.estatisticas());
+        metricas.put("aiResponseCache", aiResponseCache.estatisticas());
+        metricas.put("aiCircuitBreaker", aiCircuitBreaker.estatisticas());
+        return ResponseEntity.ok(metricas);
+    }
+}
@@ -3,17 +3,24 @@ package com.logicalastrology.controller;
 import com.logicalastrology.dto.ThematicPredictionRequest;
 import com.logicalastrology.dto.ThematicPredictionResponse;
 import com.logicalastrology.dto.ThematicPredictionStatusDTO;
+import com.logicalastrology.service.PrevisaoNotificador;
 import com.logicalastrology.service.ThematicPredictionService;
+import com.logicalastrology.service.WebhookInboxService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api")
@@ -21,10 +28,21 @@ public class ThematicPredictionController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ThematicPredictionController.class);
 
+    private static final long EVENTOS_TIMEOUT_MS = 300_000;
+
     private final ThematicPredictionService predictionService;
+    private final WebhookInboxService webhookInbox;
+    private final PrevisaoNotificador notificador;
+    private final Executor previsaoExecutor;
 
-    public ThematicPredictionController(ThematicPredictionService predictionService) {
+    public ThematicPredictionController(ThematicPredictionService predictionService,
+                                        WebhookInboxService webhookInbox,
+                                        PrevisaoNotificador notificador,
+                                        @Qualifier("previsaoExecutor") Executor previsaoExecutor) {
         this.predictionService = predictionService;
+        this.webhookInbox = webhookInbox;
+        this.notificador = notificador;
+        this.previsaoExecutor = previsaoExecutor;
     }
 
     @PostMapping("/previsoes/tematicas")
@@ -47,25 +65,94 @@ public class ThematicPredictionController {
         }
     }
 
+    /**
+     * Envia um evento "status" com o estado atual e outro a cada mudança avisada pelo {@link PrevisaoNotificador},
+     * encerrando quando a previsão chega a um estado final. Enquanto espera, a conexão não prende recursos do banco.
+     */
+    @GetMapping(value = "/previsoes/tematicas/{predictionId}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(@PathVariable("predictionId") String predictionId) {
+        UUID id;
+        try {
+            id = UUID.fromString(predictionId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ID de previsão inválido");
+        }
+        SseEmitter emitter = new SseEmitter(EVENTOS_TIMEOUT_MS);
+        Runnable enviar = () -> enviarStatus(emitter, predictionId);
+        Runnable cancelar = notificador.inscrever(id, enviar);
+        emitter.onCompletion(cancelar);
+        emitter.onTimeout(cancelar);
+        emitter.onError(ex -> cancelar.run());
+        // a primeira leitura roda fora da thread da requisição para não prender a conexão do open-in-view
+        previsaoExecutor.execute(enviar);
+        return emitter;
+    }
+
+    private void enviarStatus(SseEmitter emitter, String predictionId) {
+        try {
+            ThematicPredictionStatusDTO status = predictionService.buscarStatusPorPredictionId(predictionId);
+            emitter.send(SseEmitter.event().name("status").data(status));
+            if ("EXPIRED".equals(status.getStatus()) || "PAID".equals(status.getStatus())) {
+                emitter.complete();
+            }
+        } catch (IllegalArgumentException ex) {
+            enviarErro(emitter, ex.getMessage());
+        } catch (IOException | IllegalStateException ex) {
+            LOGGER.debug("Cliente encerrou os eventos da previsão {}: {}", predictionId, ex.getMessage());
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private static void enviarErro(SseEmitter emitter, String mensagem) {
+        try {
+            emitter.send(SseEmitter.event().name("erro").data(mensagem));
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
+
     @PostMapping("/pagamentos/webhook")
     public ResponseEntity<Void> webhook(@RequestParam(value = "data.id", required = false) String dataId,
                                         @RequestParam(value = "id", required = false) String queryId,
+                                        @RequestParam(value = "topic", required = false) String topic,
+                                        @RequestParam(value = "type", required = false) String type,
                                         @RequestBody(required = false) Map<String, Object> payload) {
+        String tipo = extractTipo(topic, type, payload);
+        if (tipo != null && !"payment".equalsIgnoreCase(tipo)) {
+            // ex.: topic=merchant_order, cujo id é o da ordem e não o do pagamento
+            LOGGER.debug("Webhook do Mercado Pago do tipo {} ignorado", tipo);
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
         String paymentId = extractPaymentId(dataId, queryId, payload);
         if (paymentId != null) {
             LOGGER.info("Webhook de pagamento recebido, id={}", paymentId);
-            try {
-                predictionService.registrarNotificacaoPagamento(paymentId);
-            } catch (ObjectOptimisticLockingFailureException e){
-                LOGGER.warn("Conflito de versão ao processar pagamento {}. Provavelmente já foi processado em outra requisição. Detalhes: {}",paymentId, e.getMessage());
-                return ResponseEntity.ok().build();
-            }
+            webhookInbox.registrar(paymentId);
         } else {
             LOGGER.warn("Webhook de pagamento recebido sem id identificável: {}", payload);
         }
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    /**
+     * Tipo da notificação: {@code topic} (IPN) ou {@code type} (webhooks), na query string ou no corpo.
+     */
+    private String extractTipo(String topic, String type, Map<String, Object> payload) {
+        if (topic != null && !topic.isBlank()) {
+            return topic;
+        }
+        if (type != null && !type.isBlank()) {
+            return type;
+        }
+        if (payload != null) {
+            Object tipo = payload.get("type") != null ? payload.get("type") : payload.get("topic");
+            if (tipo != null) {
+                return tipo.toString();
+            }
+        }
+        return null;
+    }
+
     private String extractPaymentId(String dataId, String queryId, Map<String, Object> payload) {
         if (dataId != null && !dataId.isBlank()) {
             return dataId;
@@ -1,5 +1,6 @@
 package com.logicalastrology.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -22,4 +23,6 @@ public class AnaliseSignoDTO {
     private double coerencia;
     @Builder.Default
     private List<String> destaques = Collections.emptyList();
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String erro;
 }
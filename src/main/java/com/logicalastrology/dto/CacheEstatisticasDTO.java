@@ -0,0 +1,14 @@
+package com.logicalastrology.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CacheEstatisticasDTO {
+    private final long hits;
+    private final long misses;
+    private final double hitRatio;
+    private final long tamanho;
+    private final long capacidade;
+}
@@ -0,0 +1,17 @@
+package com.logicalastrology.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@Builder
+public class CircuitBreakerEstatisticasDTO {
+    private final String estado;
+    private final double taxaFalhas;
+    private final double taxaLentas;
+    private final int chamadasNaJanela;
+    private final long recusadas;
+    private final Map<String, Long> transicoes;
+}
@@ -0,0 +1,14 @@
+package com.logicalastrology.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProgressoScrapingDTO {
+    private final int total;
+    private final int coletados;
+    private final int falhas;
+    private final int ignorados;
+    private final int pendentes;
+}
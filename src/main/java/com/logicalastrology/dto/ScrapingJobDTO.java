@@ -0,0 +1,19 @@
+package com.logicalastrology.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Builder
+public class ScrapingJobDTO {
+    private final String id;
+    private final String status;
+    private final LocalDateTime iniciadoEm;
+    private final LocalDateTime concluidoEm;
+    private final int salvos;
+    private final Map<String, ProgressoScrapingDTO> porFonte;
+    private final Map<String, ProgressoScrapingDTO> porSigno;
+}
@@ -0,0 +1,13 @@
+package com.logicalastrology.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class StatusDadosDTO {
+    private final String estado;
+    private final LocalDateTime ultimaColeta;
+}
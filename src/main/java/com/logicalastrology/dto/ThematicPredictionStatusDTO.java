@@ -12,6 +12,7 @@ public class ThematicPredictionStatusDTO {
     private final String status;
     private final LocalDateTime expiresAt;
     private final String tema;
+    private final String initPoint;
     private final String mensagem;
     private final boolean ativo;
 }
@@ -0,0 +1,33 @@
+package com.logicalastrology.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "tb_ai_response_cache",
+        indexes = @Index(name = "idx_ai_response_cache_expira_em", columnList = "expira_em"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AiResponseCacheEntry {
+
+    /**
+     * SHA-256 de (modelo, temperatura, prompt de sistema, prompt do usuário).
+     */
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String conteudo;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
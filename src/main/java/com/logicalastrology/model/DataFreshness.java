@@ -0,0 +1,13 @@
+package com.logicalastrology.model;
+
+/**
+ * Situação dos horóscopos do dia servidos pela API.
+ */
+public enum DataFreshness {
+    /** Ainda não há coleta completa para hoje; a API responde com os últimos dados disponíveis. */
+    STALE,
+    /** Coleta do dia em andamento em segundo plano; a API segue respondendo com dados antigos. */
+    WARMING,
+    /** Todas as fontes do dia já foram coletadas. */
+    WARM
+}
@@ -3,11 +3,16 @@ package com.logicalastrology.model;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 import lombok.*;
 
 @Entity
-@Table(name = "tb_horoscopo")
+@Table(name = "tb_horoscopo", indexes = {
+        @Index(name = "idx_horoscopo_signo_data", columnList = "signo_chave, data_coleta"),
+        @Index(name = "idx_horoscopo_signo_fonte_data", columnList = "signo_chave, fonte_chave, data_coleta"),
+        @Index(name = "idx_horoscopo_data", columnList = "data_coleta")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,8 +28,28 @@ public class Horoscopo {
     @Column(length = 2000)
     private String descricao;
     private String fonte;
+    @Column(name = "data_coleta")
     private LocalDateTime dataColeta;
 
     @Column(columnDefinition = "TEXT")
     private String text;
+
+    /**
+     * Signo e fonte normalizados por {@link #chave(String)}, usados nas consultas por igualdade exata.
+     */
+    @Column(name = "signo_chave", length = 40)
+    private String signoChave;
+    @Column(name = "fonte_chave", length = 100)
+    private String fonteChave;
+
+    @PrePersist
+    @PreUpdate
+    public void preencherChaves() {
+        this.signoChave = chave(signo);
+        this.fonteChave = chave(fonte);
+    }
+
+    public static String chave(String valor) {
+        return valor == null ? null : valor.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -40,6 +40,12 @@ public class SignoAnalise {
     @Column(nullable = false)
     private boolean generated;
 
+    /**
+     * Hash dos textos de origem usados na geração; permite saber se a análise ficou desatualizada.
+     */
+    @Column(length = 64)
+    private String entradaHash;
+
     @Builder.Default
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "tb_signo_analise_highlight", joinColumns = @JoinColumn(name = "analise_id"))
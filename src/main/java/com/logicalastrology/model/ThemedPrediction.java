@@ -7,6 +7,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -22,7 +23,9 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "themed_prediction", uniqueConstraints = @UniqueConstraint(columnNames = "preference_id"))
+@Table(name = "themed_prediction",
+        uniqueConstraints = @UniqueConstraint(columnNames = "preference_id"),
+        indexes = @Index(name = "idx_themed_prediction_status_expires", columnList = "status, expires_at"))
 public class ThemedPrediction {
 
     @Id
@@ -56,6 +59,7 @@ public class ThemedPrediction {
     @Column(length = 350)
     private String sandboxInitPoint;
 
+    @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
     private boolean descontoAplicado;
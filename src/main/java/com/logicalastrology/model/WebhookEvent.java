@@ -0,0 +1,44 @@
+package com.logicalastrology.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificação de pagamento recebida pelo webhook, guardada até ser processada.
+ * O id do pagamento é a chave primária, então notificações repetidas não geram novas linhas.
+ */
+@Entity
+@Table(name = "tb_webhook_event",
+        indexes = @Index(name = "idx_webhook_event_status_proxima", columnList = "status, proxima_tentativa_em"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEvent {
+
+    @Id
+    @Column(name = "payment_id", length = 64)
+    private String paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WebhookEventStatus status;
+
+    @Column(nullable = false)
+    private int tentativas;
+
+    @Column(name = "proxima_tentativa_em", nullable = false)
+    private LocalDateTime proximaTentativaEm;
+
+    @Column(length = 1000)
+    private String ultimoErro;
+
+    @Column(nullable = false)
+    private LocalDateTime recebidoEm;
+
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+}
@@ -0,0 +1,8 @@
+package com.logicalastrology.model;
+
+public enum WebhookEventStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,344 @@
+package com.logicalastrology.nlp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicalastrology.config.AiProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Cliente assíncrono do endpoint de chat da IA sobre {@link HttpClient}: uma única instância mantém as
+ * conexões abertas (keep-alive, HTTP/2 quando o provedor aceita), evitando um handshake TLS por chamada.
+ * Nenhuma thread fica presa esperando: o orçamento do {@link AiRateLimiter}, as vagas de conexão
+ * ({@code ai.http.max-connections}) e as novas tentativas após 429 são agendados de forma assíncrona.
+ */
+@Slf4j
+@Component
+public class AiChatClient {
+
+    private static final Duration RETRY_AFTER_PADRAO = Duration.ofSeconds(5);
+    private static final int TOKENS_RESPOSTA_ESTIMADOS = 512;
+
+    private final AiProperties aiProperties;
+    private final ObjectMapper objectMapper;
+    private final AiRateLimiter rateLimiter;
+    private final AiCircuitBreaker circuitBreaker;
+    private final HttpClient httpClient;
+    private final Semaphore vagas;
+    private final Queue<Runnable> aguardandoVaga = new ConcurrentLinkedQueue<>();
+
+    public AiChatClient(AiProperties aiProperties,
+                        ObjectMapper objectMapper,
+                        AiRateLimiter rateLimiter,
+                        AiCircuitBreaker circuitBreaker) {
+        this.aiProperties = aiProperties;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.vagas = new Semaphore(Math.max(1, aiProperties.getHttp().getMaxConnections()));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(aiProperties.getHttp().getConnectTimeout())
+                .build();
+    }
+
+    /**
+     * Envia o corpo ao endpoint configurado e completa com o JSON da resposta. Respostas 429 pausam o
+     * limitador pelo tempo indicado em {@code Retry-After} e a chamada é repetida até
+     * {@code ai.rate-limit.max-retries} vezes; demais erros completam com {@link AiClientException}.
+     * Com o {@link AiCircuitBreaker} aberto, completa na hora com {@link AiCircuitOpenException}.
+     */
+    public CompletableFuture<JsonNode> enviar(Map<String, Object> body, Duration timeout) {
+        return executar(body, estimarTokens(body), timeout, circuitBreaker.limiteLenta(timeout),
+                HttpResponse.BodyHandlers.ofString(), this::lerJson);
+    }
+
+    /**
+     * Como {@link #enviar}, mas pede a resposta em streaming ({@code stream: true}): cada trecho de conteúdo
+     * é repassado a {@code aoReceber} assim que chega, e o futuro completa com o conteúdo inteiro. O uso real de
+     * tokens é pedido ao provedor ({@code stream_options.include_usage}) e acertado no limitador ao fim do stream.
+     * A duração do stream acompanha o tamanho da resposta, então não conta como chamada lenta no disjuntor.
+     */
+    public CompletableFuture<String> enviarStream(Map<String, Object> body, Duration timeout, Consumer<String> aoReceber) {
+        Map<String, Object> corpo = new LinkedHashMap<>(body);
+        corpo.put("stream", true);
+        corpo.put("stream_options", Map.of("include_usage", true));
+        int tokensEstimados = estimarTokens(corpo);
+        HttpResponse.BodyHandler<String> handler = info -> info.statusCode() / 100 == 2
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(new LeitorSse(aoReceber, tokensEstimados),
+                        LeitorSse::conteudo, StandardCharsets.UTF_8, null)
+                : HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+        return executar(corpo, tokensEstimados, timeout, null, handler, (conteudo, estimados) -> conteudo);
+    }
+
+    private <T> CompletableFuture<T> executar(Map<String, Object> body,
+                                              int tokensEstimados,
+                                              Duration timeout,
+                                              Duration limiteLenta,
+                                              HttpResponse.BodyHandler<String> handler,
+                                              BiFunction<String, Integer, T> conversor) {
+        AiCircuitBreaker.Permissao permissao = circuitBreaker.permitir().orElse(null);
+        if (permissao == null) {
+            return CompletableFuture.failedFuture(new AiCircuitOpenException());
+        }
+        HttpRequest request;
+        try {
+            request = montarRequisicao(body, timeout);
+        } catch (RuntimeException ex) {
+            circuitBreaker.registrar(permissao, 0, false);
+            throw ex;
+        }
+        log.info("Chamada à IA com ~{} tokens estimados", tokensEstimados);
+        Chamada<T> chamada = new Chamada<>(request, handler, conversor, tokensEstimados, permissao, limiteLenta,
+                new CompletableFuture<>());
+        tentar(chamada, 0);
+        return chamada.resultado();
+    }
+
+    private HttpRequest montarRequisicao(Map<String, Object> body, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(aiProperties.getEndpoint()))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(serializar(body)));
+        if (StringUtils.hasText(aiProperties.getApiKey())) {
+            builder.header("Authorization", "Bearer " + aiProperties.getApiKey());
+        }
+        return builder.build();
+    }
+
+    private <T> void tentar(Chamada<T> chamada, int tentativas) {
+        long espera = rateLimiter.tryAcquire(chamada.tokensEstimados());
+        if (espera > 0) {
+            CompletableFuture.delayedExecutor(espera, TimeUnit.NANOSECONDS)
+                    .execute(() -> tentar(chamada, tentativas));
+            return;
+        }
+        comVaga(() -> {
+            long inicio = System.nanoTime();
+            CompletableFuture<HttpResponse<String>> envio;
+            try {
+                envio = httpClient.sendAsync(chamada.request(), chamada.handler());
+            } catch (RuntimeException ex) {
+                liberarVaga();
+                circuitBreaker.registrar(chamada.permissao(), 0, chamada.limiteLenta(), false);
+                chamada.resultado().completeExceptionally(ex);
+                return;
+            }
+            envio.whenComplete((response, ex) -> {
+                liberarVaga();
+                long duracao = System.nanoTime() - inicio;
+                if (ex != null) {
+                    circuitBreaker.registrar(chamada.permissao(), duracao, chamada.limiteLenta(), false);
+                    chamada.resultado().completeExceptionally(ex);
+                } else {
+                    tratarResposta(chamada, response, duracao, tentativas);
+                }
+            });
+        });
+    }
+
+    private <T> void tratarResposta(Chamada<T> chamada, HttpResponse<String> response, long duracao, int tentativas) {
+        int status = response.statusCode();
+        if (status == 429) {
+            rateLimiter.pausar(retryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+            int maxRetries = aiProperties.getRateLimit().getMaxRetries();
+            if (tentativas + 1 > maxRetries) {
+                // limite do provedor já é tratado pelo limitador; não indica que o endpoint está fora do ar
+                circuitBreaker.liberar(chamada.permissao());
+                chamada.resultado().completeExceptionally(new AiClientException(status, "Limite do provedor de IA atingido"));
+                return;
+            }
+            log.warn("Limite do provedor de IA atingido; nova tentativa {} de {}", tentativas + 1, maxRetries);
+            tentar(chamada, tentativas + 1);
+            return;
+        }
+        boolean sucesso = status >= 200 && status < 300;
+        circuitBreaker.registrar(chamada.permissao(), duracao, chamada.limiteLenta(), sucesso);
+        if (!sucesso) {
+            chamada.resultado().completeExceptionally(new AiClientException(status, "Resposta inválida da IA: " + status));
+            return;
+        }
+        try {
+            chamada.resultado().complete(chamada.conversor().apply(response.body(), chamada.tokensEstimados()));
+        } catch (RuntimeException e) {
+            chamada.resultado().completeExceptionally(e);
+        }
+    }
+
+    private JsonNode lerJson(String body, int tokensEstimados) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            rateLimiter.registrarUso(tokensEstimados, json.path("usage").path("total_tokens").asInt(0));
+            return json;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void comVaga(Runnable tarefa) {
+        aguardandoVaga.add(tarefa);
+        drenarFila();
+    }
+
+    private void liberarVaga() {
+        vagas.release();
+        drenarFila();
+    }
+
+    private void drenarFila() {
+        while (!aguardandoVaga.isEmpty() && vagas.tryAcquire()) {
+            Runnable tarefa = aguardandoVaga.poll();
+            if (tarefa == null) {
+                vagas.release();
+                return;
+            }
+            tarefa.run();
+        }
+    }
+
+    private String serializar(Map<String, Object> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int estimarTokens(Map<String, Object> body) {
+        int caracteres = 0;
+        Object messages = body.get("messages");
+        if (messages instanceof List<?> lista) {
+            for (Object message : lista) {
+                Object content = ((Map<String, Object>) message).get("content");
+                caracteres += content == null ? 0 : content.toString().length();
+            }
+        }
+        // mais a resposta esperada
+        return PromptBudget.estimarTokens(caracteres) + TOKENS_RESPOSTA_ESTIMADOS;
+    }
+
+    private Duration retryAfter(String valor) {
+        if (!StringUtils.hasText(valor)) {
+            return RETRY_AFTER_PADRAO;
+        }
+        try {
+            return Duration.ofMillis((long) (Double.parseDouble(valor.trim()) * 1000));
+        } catch (NumberFormatException ignored) {
+            // formato HTTP-date
+        }
+        try {
+            Duration ate = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(valor.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return ate.isNegative() ? Duration.ZERO : ate;
+        } catch (DateTimeParseException ex) {
+            return RETRY_AFTER_PADRAO;
+        }
+    }
+
+    private record Chamada<T>(HttpRequest request,
+                              HttpResponse.BodyHandler<String> handler,
+                              BiFunction<String, Integer, T> conversor,
+                              int tokensEstimados,
+                              AiCircuitBreaker.Permissao permissao,
+                              Duration limiteLenta,
+                              CompletableFuture<T> resultado) {
+    }
+
+    /**
+     * Lê as linhas {@code data:} do stream de chat completion e acumula os trechos de conteúdo. O último
+     * evento traz o {@code usage} da chamada, repassado ao {@link AiRateLimiter} quando o stream termina.
+     */
+    private final class LeitorSse implements Flow.Subscriber<String> {
+
+        private final Consumer<String> aoReceber;
+        private final int tokensEstimados;
+        private final StringBuilder conteudo = new StringBuilder();
+        private boolean repassar = true;
+        private int tokensReais;
+
+        private LeitorSse(Consumer<String> aoReceber, int tokensEstimados) {
+            this.aoReceber = aoReceber;
+            this.tokensEstimados = tokensEstimados;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String linha) {
+            if (!linha.startsWith("data:")) {
+                return;
+            }
+            String dados = linha.substring(5).trim();
+            if (dados.isEmpty() || "[DONE]".equals(dados)) {
+                return;
+            }
+            JsonNode evento;
+            try {
+                evento = objectMapper.readTree(dados);
+            } catch (IOException e) {
+                log.debug("Trecho do stream da IA ignorado: {}", e.getMessage());
+                return;
+            }
+            int total = evento.path("usage").path("total_tokens").asInt(0);
+            if (total > 0) {
+                tokensReais = total;
+            }
+            String trecho = evento.path("choices").path(0).path("delta").path("content").asText("");
+            if (trecho.isEmpty()) {
+                return;
+            }
+            conteudo.append(trecho);
+            if (repassar) {
+                try {
+                    aoReceber.accept(trecho);
+                } catch (RuntimeException ex) {
+                    // quem consome saiu (ex.: navegador fechou a conexão); o conteúdo continua sendo acumulado
+                    repassar = false;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // a falha chega ao chamador pelo futuro da requisição
+        }
+
+        @Override
+        public void onComplete() {
+            // o conteúdo acumulado é lido pelo finisher
+            rateLimiter.registrarUso(tokensEstimados, tokensReais);
+        }
+
+        private String conteudo() {
+            return conteudo.toString();
+        }
+    }
+}
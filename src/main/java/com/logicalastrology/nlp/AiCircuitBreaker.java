@@ -0,0 +1,208 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import com.logicalastrology.dto.CircuitBreakerEstatisticasDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Disjuntor em volta do endpoint de IA. Fechado, acompanha as últimas chamadas numa janela deslizante e
+ * abre quando a taxa de falhas ou de chamadas lentas passa do limite; aberto, recusa chamadas sem tocar a
+ * rede até {@code ai.circuit-breaker.open-duration}; meio-aberto, deixa passar algumas chamadas de teste
+ * e fecha se todas forem bem-sucedidas. Resultados de chamadas liberadas antes da última mudança de estado
+ * são ignorados, então só as chamadas de teste decidem se o circuito fecha. O limite de chamada lenta
+ * ({@code ai.circuit-breaker.slow-call-duration}) vale para o prazo padrão {@code ai.timeout} e cresce na
+ * mesma proporção para chamadas com prazo maior (ver {@link #limiteLenta(Duration)}).
+ */
+@Slf4j
+@Component
+public class AiCircuitBreaker {
+
+    public enum Estado {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final AiProperties.CircuitBreaker config;
+    private final Duration timeoutPadrao;
+    private final boolean[] falhas;
+    private final boolean[] lentas;
+    private final Map<String, Long> transicoes = new LinkedHashMap<>();
+    private int posicao;
+    private int registradas;
+    private int totalFalhas;
+    private int totalLentas;
+    private Estado estado = Estado.CLOSED;
+    private long abertoAte;
+    private int testesLiberados;
+    private int testesConcluidos;
+    private long recusadas;
+    private long periodo;
+
+    /**
+     * Autorização devolvida por {@link #permitir()}: guarda em qual período do disjuntor a chamada foi
+     * liberada e se ela é uma chamada de teste do estado meio-aberto.
+     */
+    public static final class Permissao {
+        private final long periodo;
+        private final boolean teste;
+
+        private Permissao(long periodo, boolean teste) {
+            this.periodo = periodo;
+            this.teste = teste;
+        }
+    }
+
+    public AiCircuitBreaker(AiProperties aiProperties) {
+        this.config = aiProperties.getCircuitBreaker();
+        this.timeoutPadrao = aiProperties.getTimeout();
+        int janela = Math.max(1, config.getWindowSize());
+        this.falhas = new boolean[janela];
+        this.lentas = new boolean[janela];
+    }
+
+    /**
+     * Indica se uma chamada pode seguir para o provedor. Quando libera, o resultado deve ser informado em
+     * {@link #registrar(Permissao, long, boolean)} ou, se não disser nada sobre a saúde do provedor,
+     * devolvido em {@link #liberar(Permissao)}.
+     */
+    public synchronized Optional<Permissao> permitir() {
+        if (!config.isEnabled()) {
+            return Optional.of(new Permissao(periodo, false));
+        }
+        if (estado == Estado.OPEN) {
+            if (System.nanoTime() - abertoAte < 0) {
+                recusadas++;
+                return Optional.empty();
+            }
+            transicionar(Estado.HALF_OPEN);
+        }
+        if (estado == Estado.HALF_OPEN) {
+            if (testesLiberados >= Math.max(1, config.getHalfOpenCalls())) {
+                recusadas++;
+                return Optional.empty();
+            }
+            testesLiberados++;
+            return Optional.of(new Permissao(periodo, true));
+        }
+        return Optional.of(new Permissao(periodo, false));
+    }
+
+    /**
+     * Devolve uma permissão sem registrar resultado (ex.: o provedor respondeu 429); se era uma chamada
+     * de teste, outra pode ser liberada no lugar dela.
+     */
+    public synchronized void liberar(Permissao permissao) {
+        if (config.isEnabled() && permissao.teste && permissao.periodo == periodo && estado == Estado.HALF_OPEN) {
+            testesLiberados--;
+        }
+    }
+
+    /**
+     * Duração a partir da qual uma chamada com o prazo {@code timeout} conta como lenta: o
+     * {@code slow-call-duration} configurado, escalado por {@code timeout / ai.timeout} quando o prazo é maior
+     * que o padrão (ex.: lotes de análise e previsões temáticas).
+     */
+    public Duration limiteLenta(Duration timeout) {
+        Duration limite = config.getSlowCallDuration();
+        if (timeout == null || timeoutPadrao == null || timeoutPadrao.isZero() || timeout.compareTo(timeoutPadrao) <= 0) {
+            return limite;
+        }
+        return Duration.ofNanos((long) (limite.toNanos() * ((double) timeout.toNanos() / timeoutPadrao.toNanos())));
+    }
+
+    public synchronized void registrar(Permissao permissao, long duracaoNanos, boolean sucesso) {
+        registrar(permissao, duracaoNanos, config.getSlowCallDuration(), sucesso);
+    }
+
+    /**
+     * Registra o resultado de uma chamada liberada. Com {@code limiteLenta} nulo a duração não é avaliada
+     * (ex.: respostas em streaming, que duram o tempo de gerar o texto inteiro).
+     */
+    public synchronized void registrar(Permissao permissao, long duracaoNanos, Duration limiteLenta, boolean sucesso) {
+        if (!config.isEnabled() || permissao.periodo != periodo) {
+            return;
+        }
+        boolean lenta = limiteLenta != null && duracaoNanos >= limiteLenta.toNanos();
+        if (estado == Estado.HALF_OPEN) {
+            if (!permissao.teste) {
+                return;
+            }
+            if (!sucesso || lenta) {
+                abrir();
+            } else if (++testesConcluidos >= Math.max(1, config.getHalfOpenCalls())) {
+                transicionar(Estado.CLOSED);
+            }
+            return;
+        }
+        if (estado != Estado.CLOSED) {
+            return;
+        }
+        if (registradas == falhas.length) {
+            totalFalhas -= falhas[posicao] ? 1 : 0;
+            totalLentas -= lentas[posicao] ? 1 : 0;
+        } else {
+            registradas++;
+        }
+        falhas[posicao] = !sucesso;
+        lentas[posicao] = lenta;
+        totalFalhas += sucesso ? 0 : 1;
+        totalLentas += lenta ? 1 : 0;
+        posicao = (posicao + 1) % falhas.length;
+
+        if (registradas >= Math.max(1, config.getMinimumCalls())
+                && (percentual(totalFalhas) >= config.getFailureRateThreshold()
+                || percentual(totalLentas) >= config.getSlowCallRateThreshold())) {
+            abrir();
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    public synchronized CircuitBreakerEstatisticasDTO estatisticas() {
+        return CircuitBreakerEstatisticasDTO.builder()
+                .estado(estado.name())
+                .taxaFalhas(percentual(totalFalhas))
+                .taxaLentas(percentual(totalLentas))
+                .chamadasNaJanela(registradas)
+                .recusadas(recusadas)
+                .transicoes(new LinkedHashMap<>(transicoes))
+                .build();
+    }
+
+    private double percentual(int quantidade) {
+        return registradas == 0 ? 0.0 : 100.0 * quantidade / registradas;
+    }
+
+    private void abrir() {
+        abertoAte = System.nanoTime() + config.getOpenDuration().toNanos();
+        transicionar(Estado.OPEN);
+        log.warn("Circuito da IA aberto por {} s (falhas {}%, lentas {}%)", config.getOpenDuration().toSeconds(),
+                Math.round(percentual(totalFalhas)), Math.round(percentual(totalLentas)));
+    }
+
+    private void transicionar(Estado novo) {
+        transicoes.merge(estado + "->" + novo, 1L, Long::sum);
+        if (novo != Estado.OPEN) {
+            log.info("Circuito da IA: {} -> {}", estado, novo);
+        }
+        estado = novo;
+        periodo++;
+        testesLiberados = 0;
+        testesConcluidos = 0;
+        if (novo == Estado.CLOSED) {
+            posicao = 0;
+            registradas = 0;
+            totalFalhas = 0;
+            totalLentas = 0;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.logicalastrology.nlp;
+
+/**
+ * Chamada recusada porque o {@link AiCircuitBreaker} está aberto.
+ */
+public class AiCircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AiCircuitOpenException() {
+        super("Circuito da IA aberto");
+    }
+}
@@ -0,0 +1,20 @@
+package com.logicalastrology.nlp;
+
+/**
+ * Resposta HTTP sem sucesso do provedor de IA.
+ */
+public class AiClientException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public AiClientException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
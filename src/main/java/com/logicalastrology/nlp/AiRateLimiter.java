@@ -0,0 +1,113 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket com o orçamento por minuto do provedor de IA (requisições e tokens).
+ * Quando o orçamento está esgotado, ou o provedor pediu para aguardar via {@code Retry-After},
+ * {@link #tryAcquire(int)} informa quanto tempo esperar.
+ */
+@Slf4j
+@Component
+public class AiRateLimiter {
+
+    private static final long NANOS_POR_MINUTO = TimeUnit.MINUTES.toNanos(1);
+
+    private final Bucket requisicoes;
+    private final Bucket tokens;
+    private long pausadoAte;
+
+    public AiRateLimiter(AiProperties aiProperties) {
+        AiProperties.RateLimit limites = aiProperties.getRateLimit();
+        long agora = System.nanoTime();
+        this.requisicoes = new Bucket(limites.getRequestsPerMinute(), agora);
+        this.tokens = new Bucket(limites.getTokensPerMinute(), agora);
+        this.pausadoAte = agora;
+    }
+
+    /**
+     * Reserva uma requisição e a estimativa de tokens sem bloquear: devolve zero se coube no orçamento,
+     * ou quantos nanossegundos aguardar antes de tentar de novo.
+     */
+    public synchronized long tryAcquire(int tokensEstimados) {
+        long agora = System.nanoTime();
+        long espera = pausadoAte - agora;
+        if (espera > 0) {
+            return espera;
+        }
+        requisicoes.refill(agora);
+        tokens.refill(agora);
+        double custo = tokens.limitado() ? Math.min(tokensEstimados, tokens.capacidade) : 0;
+        espera = Math.max(requisicoes.espera(1), tokens.espera(custo));
+        if (espera > 0) {
+            return espera;
+        }
+        requisicoes.consumir(1);
+        tokens.consumir(custo);
+        return 0;
+    }
+
+    /**
+     * Ajusta o balde de tokens com o consumo real informado pelo provedor.
+     */
+    public synchronized void registrarUso(int tokensEstimados, int tokensReais) {
+        if (tokens.limitado() && tokensReais > 0) {
+            tokens.consumir(tokensReais - Math.min(tokensEstimados, tokens.capacidade));
+        }
+    }
+
+    /**
+     * Suspende novas chamadas pelo tempo pedido pelo provedor (resposta 429).
+     */
+    public synchronized void pausar(Duration duracao) {
+        long ate = System.nanoTime() + duracao.toNanos();
+        if (ate - pausadoAte > 0) {
+            pausadoAte = ate;
+        }
+        log.info("Provedor de IA pediu para aguardar {} ms", duracao.toMillis());
+    }
+
+    private static final class Bucket {
+        private final double capacidade;
+        private final double reposicaoPorNano;
+        private double disponivel;
+        private long ultimaReposicao;
+
+        private Bucket(int limitePorMinuto, long agora) {
+            this.capacidade = Math.max(0, limitePorMinuto);
+            this.reposicaoPorNano = capacidade / NANOS_POR_MINUTO;
+            this.disponivel = capacidade;
+            this.ultimaReposicao = agora;
+        }
+
+        private boolean limitado() {
+            return capacidade > 0;
+        }
+
+        private void refill(long agora) {
+            if (!limitado()) {
+                return;
+            }
+            disponivel = Math.min(capacidade, disponivel + (agora - ultimaReposicao) * reposicaoPorNano);
+            ultimaReposicao = agora;
+        }
+
+        private long espera(double quantidade) {
+            if (!limitado() || disponivel >= quantidade) {
+                return 0;
+            }
+            return (long) Math.ceil((quantidade - disponivel) / reposicaoPorNano);
+        }
+
+        private void consumir(double quantidade) {
+            if (limitado()) {
+                disponivel -= quantidade;
+            }
+        }
+    }
+}
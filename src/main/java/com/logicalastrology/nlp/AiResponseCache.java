@@ -0,0 +1,110 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import com.logicalastrology.dto.CacheEstatisticasDTO;
+import com.logicalastrology.model.AiResponseCacheEntry;
+import com.logicalastrology.repository.AiResponseCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache persistente das respostas da IA, endereçado pelo hash do prompt completo.
+ * Um prompt repetido (mesmos textos, modelo e temperatura) é respondido sem chamada HTTP.
+ */
+@Slf4j
+@Component
+public class AiResponseCache {
+
+    private final AiResponseCacheRepository repository;
+    private final AiProperties.ResponseCache config;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AiResponseCache(AiResponseCacheRepository repository, AiProperties aiProperties) {
+        this.repository = repository;
+        this.config = aiProperties.getResponseCache();
+    }
+
+    public static String hash(String model, double temperature, String systemPrompt, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String parte : new String[]{model, Double.toString(temperature), systemPrompt, prompt}) {
+                digest.update(String.valueOf(parte).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    public Optional<String> buscar(String hash) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<String> conteudo = repository.findByHashAndExpiraEmAfter(hash, LocalDateTime.now())
+                .map(AiResponseCacheEntry::getConteudo);
+        (conteudo.isPresent() ? hits : misses).increment();
+        return conteudo;
+    }
+
+    public void guardar(String hash, String conteudo) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        try {
+            repository.save(AiResponseCacheEntry.builder()
+                    .hash(hash)
+                    .conteudo(conteudo)
+                    .criadoEm(agora)
+                    .expiraEm(agora.plus(config.getTtl()))
+                    .build());
+        } catch (RuntimeException ex) {
+            log.warn("Não foi possível gravar resposta da IA no cache: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Remove entradas expiradas e, se ainda passar de {@code ai.response-cache.max-entries}, as mais antigas.
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    @Transactional
+    public void limpar() {
+        int expiradas = repository.deleteExpired(LocalDateTime.now());
+        long excedente = repository.count() - config.getMaxEntries();
+        int removidas = 0;
+        if (excedente > 0) {
+            List<String> antigas = repository.findOldestHashes(PageRequest.of(0, (int) Math.min(excedente, Integer.MAX_VALUE)));
+            repository.deleteAllByIdInBatch(antigas);
+            removidas = antigas.size();
+        }
+        if (expiradas + removidas > 0) {
+            log.info("Cache de respostas da IA: {} expiradas e {} excedentes removidas", expiradas, removidas);
+        }
+    }
+
+    public CacheEstatisticasDTO estatisticas() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return CacheEstatisticasDTO.builder()
+                .hits(h)
+                .misses(m)
+                .hitRatio(h + m == 0 ? 0.0 : (double) h / (h + m))
+                .tamanho(repository.count())
+                .capacidade(config.getMaxEntries())
+                .build();
+    }
+}
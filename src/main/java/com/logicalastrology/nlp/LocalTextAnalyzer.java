@@ -0,0 +1,161 @@
+package com.logicalastrology.nlp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Analisador local em português usado quando a IA está desabilitada ou indisponível.
+ * Os léxicos de stopwords e sentimento vêm de {@code classpath:nlp/*.txt}; os textos são tokenizados
+ * numa única passada, com stemming leve, e a coerência mede quanto os temas se repetem entre as fontes.
+ */
+@Slf4j
+@Component
+public class LocalTextAnalyzer {
+
+    private static final String LETRAS_ACENTUADAS = "áéíóúàâêôçãõü";
+    private static final Set<String> NEGACOES = Set.of("não", "nem", "nunca", "jamais", "sem");
+    private static final int TAMANHO_MINIMO_TEMA = 4;
+    private static final int TOTAL_DESTAQUES = 5;
+    private static final double COERENCIA_FONTE_UNICA = 0.5;
+
+    private final Set<String> stopwords;
+    private final Set<String> positivas;
+    private final Set<String> negativas;
+
+    public LocalTextAnalyzer() {
+        this.stopwords = carregarLexico("nlp/stopwords-pt.txt", Function.identity());
+        this.positivas = carregarLexico("nlp/sentimento-positivo.txt", PortugueseStemmer::stem);
+        this.negativas = carregarLexico("nlp/sentimento-negativo.txt", PortugueseStemmer::stem);
+        log.info("Analisador local carregado: {} stopwords, {} termos positivos, {} negativos",
+                stopwords.size(), positivas.size(), negativas.size());
+    }
+
+    public AiAnalysisResult analyze(String signo, List<String> textos) {
+        WordCounter frequencia = new WordCounter(256);
+        WordCounter fontesPorRadical = new WordCounter(256);
+        Map<String, String> formaOriginal = new HashMap<>();
+        Set<String> radicaisDoTexto = new HashSet<>();
+        StringBuilder palavra = new StringBuilder(32);
+        int positivo = 0;
+        int negativo = 0;
+        int totalTemas = 0;
+
+        for (String texto : textos) {
+            radicaisDoTexto.clear();
+            boolean negar = false;
+            for (int i = 0, n = texto.length(); i <= n; i++) {
+                char c = i < n ? Character.toLowerCase(texto.charAt(i)) : ' ';
+                if (isLetraValida(c)) {
+                    palavra.append(c);
+                    continue;
+                }
+                if (palavra.isEmpty()) {
+                    continue;
+                }
+                String token = palavra.toString();
+                palavra.setLength(0);
+                if (NEGACOES.contains(token)) {
+                    negar = true;
+                    continue;
+                }
+                if (stopwords.contains(token)) {
+                    continue;
+                }
+                String radical = PortugueseStemmer.stem(token);
+                boolean termoPositivo = positivas.contains(radical);
+                if (termoPositivo || negativas.contains(radical)) {
+                    // uma negação logo antes inverte o sentido ("não evite", "sem sorte")
+                    if (termoPositivo != negar) {
+                        positivo++;
+                    } else {
+                        negativo++;
+                    }
+                }
+                negar = false;
+                if (token.length() >= TAMANHO_MINIMO_TEMA) {
+                    totalTemas++;
+                    frequencia.increment(radical);
+                    formaOriginal.putIfAbsent(radical, token);
+                    if (radicaisDoTexto.add(radical)) {
+                        fontesPorRadical.increment(radical);
+                    }
+                }
+            }
+        }
+
+        // temas citados por mais fontes vêm primeiro; dentro do mesmo nível, os mais frequentes
+        List<String> destaques = frequencia.top(TOTAL_DESTAQUES, fontesPorRadical::count).stream()
+                .map(formaOriginal::get)
+                .toList();
+
+        String sentimento = positivo > negativo ? "Positivo" : negativo > positivo ? "Negativo" : "Neutro";
+        double coerencia = coerencia(textos.size(), totalTemas, frequencia, fontesPorRadical, formaOriginal.keySet());
+        String resumo = destaques.isEmpty()
+                ? "As previsões apresentam perspectivas variadas, sugerindo reflexão e equilíbrio."
+                : String.format("As fontes convergem em temas como %s para o signo de %s.",
+                String.join(", ", destaques),
+                signo.toLowerCase(Locale.ROOT));
+
+        return new AiAnalysisResult(resumo, sentimento, coerencia, false, destaques);
+    }
+
+    /**
+     * Fração das ocorrências de temas que também aparecem em pelo menos outra fonte.
+     */
+    private static double coerencia(int totalFontes,
+                                    int totalTemas,
+                                    WordCounter frequencia,
+                                    WordCounter fontesPorRadical,
+                                    Set<String> radicais) {
+        if (totalTemas == 0) {
+            return 0.1;
+        }
+        if (totalFontes < 2) {
+            return COERENCIA_FONTE_UNICA;
+        }
+        int compartilhadas = 0;
+        for (String radical : radicais) {
+            if (fontesPorRadical.count(radical) >= 2) {
+                compartilhadas += frequencia.count(radical);
+            }
+        }
+        double coerencia = (double) compartilhadas / totalTemas;
+        return Math.round(Math.min(1.0, Math.max(0.1, coerencia)) * 100) / 100.0;
+    }
+
+    private static boolean isLetraValida(char c) {
+        return (c >= 'a' && c <= 'z') || LETRAS_ACENTUADAS.indexOf(c) >= 0;
+    }
+
+    private static Set<String> carregarLexico(String caminho, Function<String, String> normalizar) {
+        Set<String> palavras = new HashSet<>();
+        ClassPathResource recurso = new ClassPathResource(caminho);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(recurso.getInputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                String palavra = linha.trim().toLowerCase(Locale.ROOT);
+                if (!palavra.isEmpty() && !palavra.startsWith("#")) {
+                    palavras.add(normalizar.apply(palavra));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível carregar o léxico " + caminho, e);
+        }
+        return Set.copyOf(palavras);
+    }
+}
@@ -6,16 +6,15 @@ import com.logicalastrology.config.AiProperties;
 import com.logicalastrology.model.PredictionSentiment;
 import com.logicalastrology.model.PredictionTheme;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.text.Normalizer;
 import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -23,88 +22,300 @@ public class NlpService {
 
     private static final String SYSTEM_PROMPT = "Você é um analista astrológico lógico. Gere um resumo único, identifique o sentimento predominante e produza uma pontuação de coerência entre 0 e 1 com base nas previsões fornecidas.";
 
-    private final RestTemplate restTemplate;
+    private static final String INSTRUCOES_RESUMO = "Junte estes textos e faça um resumo de no máximo 230 palavras transformando em um só, destacando os pontos em que os textos deram mais evidência. Utilize linguagem humanizada e palavras fáceis. Ao final do texto inserido em summary, neste mesmo objeto, ainda dentro de summary, após o ultimo ponto final, inicie frase curta e direta indicando uma atitude para o leitor executar com base no texto, motivando e passando confiança. O resumo final deve estar pronto para ser exibido ao usuário e ficará no campo descricaoFinal.";
+    private static final String INSTRUCOES_FORMATO = "O campo summary deve conter exatamente o texto humanizado pedido acima. Não fuja deste padrão do JSON. Não inclua o caractere ` em nenhum local do texto.";
+
+    private final AiChatClient chatClient;
     private final AiProperties aiProperties;
     private final ObjectMapper objectMapper;
-    private static final Duration AI_CALL_DELAY = Duration.ofSeconds(5);
+    private final LocalTextAnalyzer localTextAnalyzer;
+    private final AiResponseCache responseCache;
+    private final PromptBudget promptBudget;
 
     public NlpService(AiProperties aiProperties,
-                      RestTemplateBuilder restTemplateBuilder,
-                      ObjectMapper objectMapper) {
+                      AiChatClient chatClient,
+                      ObjectMapper objectMapper,
+                      LocalTextAnalyzer localTextAnalyzer,
+                      AiResponseCache responseCache,
+                      PromptBudget promptBudget) {
         this.aiProperties = aiProperties;
-        Duration timeout = aiProperties.getTimeout() == null ? Duration.ofSeconds(30) : aiProperties.getTimeout();
-        this.restTemplate = restTemplateBuilder
-                .setConnectTimeout(timeout)
-                .setReadTimeout(timeout)
-                .build();
+        this.chatClient = chatClient;
         this.objectMapper = objectMapper;
+        this.localTextAnalyzer = localTextAnalyzer;
+        this.responseCache = responseCache;
+        this.promptBudget = promptBudget;
     }
 
     public AiAnalysisResult analyze(String signo, List<String> textos) {
-        List<String> cleanedTexts = textos == null ? List.of() : textos.stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .toList();
+        return analyzeAsync(signo, textos).join();
+    }
 
+    /**
+     * Igual a {@link #analyze(String, List)}, sem ocupar a thread chamadora durante a chamada à IA.
+     * Nunca completa com erro: falhas da IA caem na análise local.
+     */
+    public CompletableFuture<AiAnalysisResult> analyzeAsync(String signo, List<String> textos) {
+        return analisarPreparados(signo, prepararTextos(textos));
+    }
+
+    private CompletableFuture<AiAnalysisResult> analisarPreparados(String signo, List<String> cleanedTexts) {
         if (cleanedTexts.isEmpty()) {
-            return new AiAnalysisResult("Nenhuma previsão disponível para análise.", "Indefinido", 0.0, false, List.of());
+            return CompletableFuture.completedFuture(
+                    new AiAnalysisResult("Nenhuma previsão disponível para análise.", "Indefinido", 0.0, false, List.of()));
         }
 
-        if (shouldUseAi()) {
-            try {
-                AiAnalysisResult result = callAi(signo, cleanedTexts);
-                if (result != null) {
+        if (!isAiAvailable()) {
+            return CompletableFuture.completedFuture(fallbackAnalysis(signo, cleanedTexts));
+        }
+
+        CompletableFuture<AiAnalysisResult> chamada;
+        try {
+            chamada = callAi(signo, cleanedTexts);
+        } catch (RuntimeException ex) {
+            chamada = CompletableFuture.failedFuture(ex);
+        }
+        return chamada
+                .exceptionally(ex -> {
+                    registrarFalha("análise de " + signo, ex);
+                    return null;
+                })
+                .thenApply(result -> result != null ? result : fallbackAnalysis(signo, cleanedTexts));
+    }
+
+    /**
+     * Igual a {@link #analyzeAsync(String, List)}, mas pede a resposta em streaming e repassa a
+     * {@code aoReceberResumo} o texto do resumo conforme ele é gerado. Respostas do cache e fallbacks
+     * não produzem trechos; o resultado final vem sempre pelo futuro.
+     */
+    public CompletableFuture<AiAnalysisResult> analyzeStream(String signo,
+                                                             List<String> textos,
+                                                             Consumer<String> aoReceberResumo) {
+        List<String> cleanedTexts = prepararTextos(textos);
+        if (cleanedTexts.isEmpty() || !isAiAvailable()) {
+            return analisarPreparados(signo, cleanedTexts);
+        }
+
+        String prompt = buildPrompt(signo, cleanedTexts);
+        String hash = AiResponseCache.hash(aiProperties.getModel(), aiProperties.getTemperature(), SYSTEM_PROMPT, prompt);
+        Optional<AiAnalysisResult> emCache = responseCache.buscar(hash).map(this::parseContent);
+        if (emCache.isPresent()) {
+            return CompletableFuture.completedFuture(emCache.get());
+        }
+
+        CompletableFuture<String> chamada;
+        try {
+            chamada = chatClient.enviarStream(buildRequestBody(prompt), aiProperties.getTimeout(),
+                    new ResumoIncremental(aoReceberResumo));
+        } catch (RuntimeException ex) {
+            chamada = CompletableFuture.failedFuture(ex);
+        }
+        return chamada
+                .thenApply(content -> {
+                    AiAnalysisResult result = parseContent(content);
+                    if (result != null) {
+                        responseCache.guardar(hash, content);
+                    }
                     return result;
-                }
-            } catch (Exception ex) {
-                log.warn("Falha ao consultar IA para {}: {}", signo, ex.getMessage());
+                })
+                .exceptionally(ex -> {
+                    registrarFalha("análise de " + signo, ex);
+                    return null;
+                })
+                .thenApply(result -> result != null ? result : fallbackAnalysis(signo, cleanedTexts));
+    }
+
+    /**
+     * Analisa vários signos com uma chamada à IA por lote de {@code ai.batch-size} signos: as instruções vão
+     * uma vez só e a resposta traz um item por signo. Signos ausentes ou inválidos na resposta são consultados
+     * individualmente; se a chamada do lote falhar (rede, HTTP ou circuito aberto), o lote inteiro cai na
+     * análise local em vez de repetir a chamada signo a signo.
+     * O mapa devolvido segue a ordem de {@code textosPorSigno}.
+     */
+    public CompletableFuture<Map<String, AiAnalysisResult>> analyzeBatch(Map<String, List<String>> textosPorSigno) {
+        Map<String, CompletableFuture<AiAnalysisResult>> porSigno = new LinkedHashMap<>();
+        Map<String, List<String>> lote = new LinkedHashMap<>();
+        int tamanhoLote = Math.max(1, aiProperties.getBatchSize());
+        List<CompletableFuture<Map<String, AiAnalysisResult>>> lotes = new ArrayList<>();
+        textosPorSigno.forEach((signo, textos) -> {
+            List<String> cleanedTexts = prepararTextos(textos);
+            if (cleanedTexts.isEmpty() || !isAiAvailable() || tamanhoLote == 1) {
+                porSigno.put(signo, analisarPreparados(signo, cleanedTexts));
+                return;
+            }
+            lote.put(signo, cleanedTexts);
+            if (lote.size() == tamanhoLote) {
+                lotes.add(analisarLote(new LinkedHashMap<>(lote)));
+                lote.clear();
             }
+        });
+        if (lote.size() == 1) {
+            lote.forEach((signo, textos) -> porSigno.put(signo, analisarPreparados(signo, textos)));
+        } else if (!lote.isEmpty()) {
+            lotes.add(analisarLote(lote));
         }
 
-        return fallbackAnalysis(signo, cleanedTexts);
+        List<CompletableFuture<?>> todas = new ArrayList<>(porSigno.values());
+        todas.addAll(lotes);
+        return CompletableFuture.allOf(todas.toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    Map<String, AiAnalysisResult> resultados = new HashMap<>();
+                    porSigno.forEach((signo, futuro) -> resultados.put(signo, futuro.join()));
+                    lotes.forEach(futuro -> resultados.putAll(futuro.join()));
+                    Map<String, AiAnalysisResult> ordenados = new LinkedHashMap<>();
+                    textosPorSigno.keySet().forEach(signo -> ordenados.put(signo, resultados.get(signo)));
+                    return ordenados;
+                });
     }
 
-    private boolean shouldUseAi() {
-        return aiProperties.isEnabled()
-                && StringUtils.hasText(aiProperties.getEndpoint())
-                && StringUtils.hasText(aiProperties.getModel());
+    private CompletableFuture<Map<String, AiAnalysisResult>> analisarLote(Map<String, List<String>> lote) {
+        String prompt = buildBatchPrompt(lote);
+        String hash = AiResponseCache.hash(aiProperties.getModel(), aiProperties.getTemperature(), SYSTEM_PROMPT, prompt);
+        Optional<String> emCache = responseCache.buscar(hash);
+
+        CompletableFuture<String> conteudo;
+        if (emCache.isPresent()) {
+            conteudo = CompletableFuture.completedFuture(emCache.get());
+        } else {
+            try {
+                conteudo = chatClient.enviar(buildRequestBody(prompt), aiProperties.getTimeout().multipliedBy(lote.size()))
+                        .thenApply(this::extractContent);
+            } catch (RuntimeException ex) {
+                conteudo = CompletableFuture.failedFuture(ex);
+            }
+        }
+
+        return conteudo
+                .thenApply(content -> {
+                    Map<String, AiAnalysisResult> interpretados = parseBatch(content, lote.keySet());
+                    if (emCache.isEmpty() && interpretados.size() == lote.size()) {
+                        responseCache.guardar(hash, content);
+                    }
+                    return interpretados;
+                })
+                .exceptionally(ex -> {
+                    registrarFalha("lote " + lote.keySet(), ex);
+                    return null;
+                })
+                .thenCompose(interpretados -> {
+                    if (interpretados == null) {
+                        Map<String, AiAnalysisResult> locais = new LinkedHashMap<>();
+                        lote.forEach((signo, textos) -> locais.put(signo, fallbackAnalysis(signo, textos)));
+                        return CompletableFuture.completedFuture(locais);
+                    }
+                    Map<String, CompletableFuture<AiAnalysisResult>> porSigno = new LinkedHashMap<>();
+                    lote.forEach((signo, textos) -> {
+                        AiAnalysisResult result = interpretados.get(signo);
+                        if (result == null) {
+                            log.warn("Resposta em lote da IA sem análise válida para {}; consultando individualmente", signo);
+                        }
+                        porSigno.put(signo, result != null
+                                ? CompletableFuture.completedFuture(result)
+                                : analisarPreparados(signo, textos));
+                    });
+                    return CompletableFuture.allOf(porSigno.values().toArray(CompletableFuture[]::new))
+                            .thenApply(v -> {
+                                Map<String, AiAnalysisResult> resultados = new LinkedHashMap<>();
+                                porSigno.forEach((signo, futuro) -> resultados.put(signo, futuro.join()));
+                                return resultados;
+                            });
+                });
     }
 
-    private AiAnalysisResult callAi(String signo, List<String> textos) throws RestClientException {
+    /**
+     * Separa a resposta em lote por signo, descartando itens de signos não pedidos ou sem resumo.
+     */
+    private Map<String, AiAnalysisResult> parseBatch(String content, Set<String> signos) {
+        Map<String, String> porNome = new HashMap<>();
+        signos.forEach(signo -> porNome.put(nomeSigno(signo), signo));
+        Map<String, AiAnalysisResult> resultados = new HashMap<>();
+        JsonNode itens;
         try {
-            Thread.sleep(AI_CALL_DELAY.toMillis());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Chamada à IA interrompida antes de iniciar para {}", signo);
-            return null;
+            JsonNode json = objectMapper.readTree(content);
+            itens = json.isArray() ? json : json.path("analises");
+        } catch (Exception ex) {
+            log.warn("Não foi possível interpretar a resposta em lote da IA: {}", ex.getMessage());
+            return resultados;
         }
-
-        Map<String, Object> body = buildRequestBody(signo, textos);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        if (StringUtils.hasText(aiProperties.getApiKey())) {
-            headers.setBearerAuth(aiProperties.getApiKey());
+        for (JsonNode item : itens) {
+            String signo = porNome.get(nomeSigno(item.path("signo").asText("")));
+            if (signo == null || resultados.containsKey(signo)) {
+                continue;
+            }
+            AiAnalysisResult result = parseContent(item.toString());
+            if (result != null) {
+                resultados.put(signo, result);
+            }
         }
+        return resultados;
+    }
 
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-        ResponseEntity<JsonNode> response = restTemplate.exchange(
-                aiProperties.getEndpoint(),
-                HttpMethod.POST,
-                entity,
-                JsonNode.class
-        );
+    private static String nomeSigno(String signo) {
+        return Normalizer.normalize(signo.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
 
-        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-            log.warn("Resposta inválida da IA: {}", response.getStatusCode());
-            return null;
-        }
+    /**
+     * Remove textos vazios. O {@link PromptBudget} só é aplicado ao montar o prompt, então a análise local
+     * continua recebendo todos os textos inteiros.
+     */
+    private List<String> prepararTextos(List<String> textos) {
+        return textos == null ? List.of() : textos.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Quantos signos cabem numa chamada em lote ({@code ai.batch-size}).
+     */
+    public int getBatchSize() {
+        return Math.max(1, aiProperties.getBatchSize());
+    }
 
-        return extractResultFromResponse(response.getBody());
+    public boolean isAiAvailable() {
+        return aiProperties.isEnabled()
+                && StringUtils.hasText(aiProperties.getEndpoint())
+                && StringUtils.hasText(aiProperties.getModel());
     }
 
-    private Map<String, Object> buildRequestBody(String signo, List<String> textos) {
+    /**
+     * Consulta a IA, reaproveitando a resposta do {@link AiResponseCache} quando o mesmo prompt já foi enviado.
+     */
+    private CompletableFuture<AiAnalysisResult> callAi(String signo, List<String> textos) {
         String prompt = buildPrompt(signo, textos);
+        String hash = AiResponseCache.hash(aiProperties.getModel(), aiProperties.getTemperature(), SYSTEM_PROMPT, prompt);
+        Optional<String> emCache = responseCache.buscar(hash);
+        if (emCache.isPresent()) {
+            AiAnalysisResult result = parseContent(emCache.get());
+            if (result != null) {
+                log.debug("Resposta da IA para {} reaproveitada do cache", signo);
+                return CompletableFuture.completedFuture(result);
+            }
+        }
+
+        return chatClient.enviar(buildRequestBody(prompt), aiProperties.getTimeout())
+                .thenApply(body -> {
+                    String content = extractContent(body);
+                    AiAnalysisResult result = parseContent(content);
+                    if (result != null) {
+                        responseCache.guardar(hash, content);
+                    }
+                    return result;
+                });
+    }
+
+    private static void registrarFalha(String chamada, Throwable ex) {
+        Throwable causa = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (causa instanceof AiCircuitOpenException) {
+            log.debug("Circuito da IA aberto; usando fallback para {}", chamada);
+        } else {
+            log.warn("Falha ao consultar IA para {}: {}", chamada, causa.getMessage());
+        }
+    }
+
+    private Map<String, Object> buildRequestBody(String prompt) {
         Map<String, Object> payload = new LinkedHashMap<>();
         payload.put("model", aiProperties.getModel());
         payload.put("temperature", aiProperties.getTemperature());
@@ -119,37 +330,59 @@ public class NlpService {
         StringBuilder sb = new StringBuilder();
         sb.append("Junte estes textos para o signo de ")
                 .append(signo)
-                .append(". Junte estes textos e faça um resumo de no máximo 230 palavras transformando em um só, destacando os pontos em que os textos deram mais evidência. Utilize linguagem humanizada e palavras fáceis. Ao final do texto inserido em summary, neste mesmo objeto, ainda dentro de summary, após o ultimo ponto final, inicie frase curta e direta indicando uma atitude para o leitor executar com base no texto, motivando e passando confiança. O resumo final deve estar pronto para ser exibido ao usuário e ficará no campo descricaoFinal.\n\n")
-                .append("Retorne somente um JSON com o formato: {\"summary\": string, \"sentiment\": string (Positivo, Neutro ou Negativo), \"coherence\": number entre 0 e 1, \"highlights\": [string,...]}. O campo summary deve conter exatamente o texto humanizado pedido acima. Não fuja deste padrão do JSON. Não inclua o caractere ` em nenhum local do texto.\n\n");
+                .append(". ")
+                .append(INSTRUCOES_RESUMO)
+                .append("\n\n")
+                .append("Retorne somente um JSON com o formato: {\"summary\": string, \"sentiment\": string (Positivo, Neutro ou Negativo), \"coherence\": number entre 0 e 1, \"highlights\": [string,...]}. ")
+                .append(INSTRUCOES_FORMATO)
+                .append("\n\n");
+        appendFontes(sb, promptBudget.aplicar(signo, textos));
+        sb.append("Certifique-se de que a resposta seja somente o JSON.");
+        return sb.toString();
+    }
+
+    private String buildBatchPrompt(Map<String, List<String>> textosPorSigno) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Para cada signo abaixo, junte os textos daquele signo. ")
+                .append(INSTRUCOES_RESUMO)
+                .append("\n\n")
+                .append("Retorne somente um JSON com o formato: {\"analises\": [{\"signo\": string (o nome do signo exatamente como informado), \"summary\": string, \"sentiment\": string (Positivo, Neutro ou Negativo), \"coherence\": number entre 0 e 1, \"highlights\": [string,...]}]}, com um item para cada signo informado e sem misturar os textos de signos diferentes. ")
+                .append(INSTRUCOES_FORMATO)
+                .append("\n\n");
+        textosPorSigno.forEach((signo, textos) -> {
+            sb.append("Signo: ").append(signo).append("\n\n");
+            appendFontes(sb, promptBudget.aplicar(signo, textos));
+        });
+        sb.append("Certifique-se de que a resposta seja somente o JSON.");
+        return sb.toString();
+    }
+
+    private static void appendFontes(StringBuilder sb, List<String> textos) {
         for (int i = 0; i < textos.size(); i++) {
             sb.append("Fonte ").append(i + 1).append(": ").append(textos.get(i)).append("\n\n");
         }
-        sb.append("Certifique-se de que a resposta seja somente o JSON.");
-        return sb.toString();
     }
 
-    private AiAnalysisResult extractResultFromResponse(JsonNode body) {
+    /**
+     * Conteúdo da mensagem da IA; se o provedor devolver o JSON direto no corpo, o corpo inteiro.
+     */
+    private String extractContent(JsonNode body) {
         JsonNode messageNode = body.path("choices").path(0).path("message").path("content");
         if (messageNode.isMissingNode() || messageNode.asText().isBlank()) {
-            return tryDirectJson(body);
+            return body.toString();
         }
+        return messageNode.asText();
+    }
 
+    private AiAnalysisResult parseContent(String content) {
         try {
-            return parseAiPayload(messageNode.asText());
+            return parseAiPayload(content);
         } catch (Exception ex) {
             log.warn("Não foi possível interpretar a resposta da IA: {}", ex.getMessage());
             return null;
         }
     }
 
-    private AiAnalysisResult tryDirectJson(JsonNode body) {
-        try {
-            return parseAiPayload(objectMapper.writeValueAsString(body));
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     private AiAnalysisResult parseAiPayload(String content) throws Exception {
         JsonNode json = objectMapper.readTree(content);
         String summary = json.path("summary").asText(null);
@@ -170,80 +403,47 @@ public class NlpService {
     }
 
     private AiAnalysisResult fallbackAnalysis(String signo, List<String> textos) {
-        String textoCombinado = textos.stream().collect(Collectors.joining(" ")).toLowerCase(Locale.ROOT)
-                .replaceAll("[^a-záéíóúàâêôçãõ\\s]", " ");
-        String[] palavras = textoCombinado.split("\\s+");
-
-        Map<String, Long> frequencia = Arrays.stream(palavras)
-                .filter(p -> p.length() > 3)
-                .collect(Collectors.groupingBy(p -> p, Collectors.counting()));
-
-        List<String> topPalavras = frequencia.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(Map.Entry::getKey)
-                .toList();
-
-        long positivas = Arrays.stream(palavras)
-                .filter(p -> p.matches("feliz|alegria|sorte|sucesso|amor|prazer|otimismo|boas|vibes"))
-                .count();
-        long negativas = Arrays.stream(palavras)
-                .filter(p -> p.matches("problema|tensão|cuidado|risco|triste|evite|difícil"))
-                .count();
-
-        String sentimento = positivas > negativas ? "Positivo" : negativas > positivas ? "Negativo" : "Neutro";
-        double coerencia = Math.min(1.0, Math.max(0.1, (double) topPalavras.size() / 5.0));
-        String resumo = topPalavras.isEmpty()
-                ? "As previsões apresentam perspectivas variadas, sugerindo reflexão e equilíbrio."
-                : String.format("As fontes convergem em temas como %s para o signo de %s.",
-                String.join(", ", topPalavras),
-                signo.toLowerCase());
-
-        return new AiAnalysisResult(resumo, sentimento, coerencia, false, topPalavras);
+        return localTextAnalyzer.analyze(signo, textos);
     }
 
     public String generateThematicPrediction(PredictionTheme tema,
                                              String nomeUsuario,
                                              String nomePar,
                                              PredictionSentiment sentimento) {
+        return generateThematicPredictionAsync(tema, nomeUsuario, nomePar, sentimento).join();
+    }
+
+    /**
+     * Versão assíncrona de {@link #generateThematicPrediction}; completa com o texto de reserva em caso de falha.
+     * Não passa pelo {@link AiResponseCache}: cada previsão é paga e personalizada com os nomes informados,
+     * então repetir os mesmos dados deve gerar uma mensagem nova, e os nomes não ficam guardados no cache.
+     */
+    public CompletableFuture<String> generateThematicPredictionAsync(PredictionTheme tema,
+                                                                     String nomeUsuario,
+                                                                     String nomePar,
+                                                                     PredictionSentiment sentimento) {
         String fallback = fallbackThematic(tema, nomeUsuario, nomePar, sentimento);
-        if (!shouldUseAi()) {
-            return fallback;
+        if (!isAiAvailable()) {
+            return CompletableFuture.completedFuture(fallback);
         }
-        try {
-            Thread.sleep(AI_CALL_DELAY.toMillis());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Chamada à IA interrompida antes de iniciar para previsão temática de {}", nomeUsuario);
-            return fallback;
-        }
-
         Map<String, Object> body = buildThematicBody(tema, nomeUsuario, nomePar, sentimento);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        if (StringUtils.hasText(aiProperties.getApiKey())) {
-            headers.setBearerAuth(aiProperties.getApiKey());
-        }
-
+        CompletableFuture<JsonNode> chamada;
         try {
-            ResponseEntity<JsonNode> response = restTemplate.exchange(
-                    aiProperties.getEndpoint(),
-                    HttpMethod.POST,
-                    new HttpEntity<>(body, headers),
-                    JsonNode.class
-            );
-            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                return fallback;
-            }
-            String message = response.getBody().path("choices").path(0).path("message").path("content").asText(null);
-            if (StringUtils.hasText(message)) {
-                return message.trim();
-            }
-            return fallback;
-        } catch (Exception ex) {
-            log.warn("Falha ao solicitar previsão temática para {}: {}", nomeUsuario, ex.getMessage());
-            return fallback;
+            Duration prazo = Optional.ofNullable(aiProperties.getHttp().getThematicTimeout())
+                    .orElse(aiProperties.getTimeout());
+            chamada = chatClient.enviar(body, prazo);
+        } catch (RuntimeException ex) {
+            chamada = CompletableFuture.failedFuture(ex);
         }
+        return chamada
+                .thenApply(response -> {
+                    String message = response.path("choices").path(0).path("message").path("content").asText(null);
+                    return StringUtils.hasText(message) ? message.trim() : fallback;
+                })
+                .exceptionally(ex -> {
+                    registrarFalha("previsão temática de " + nomeUsuario, ex);
+                    return fallback;
+                });
     }
 
     private Map<String, Object> buildThematicBody(PredictionTheme tema,
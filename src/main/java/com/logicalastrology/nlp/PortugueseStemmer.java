@@ -0,0 +1,54 @@
+package com.logicalastrology.nlp;
+
+/**
+ * Stemming leve para português: reduz plural, advérbios em "-mente" e a vogal temática final,
+ * o suficiente para agrupar "amores"/"amor" e "alegria"/"alegrias" sem um stemmer completo.
+ */
+final class PortugueseStemmer {
+
+    private static final int TAMANHO_MINIMO = 4;
+
+    private PortugueseStemmer() {
+    }
+
+    static String stem(String palavra) {
+        if (palavra.length() <= TAMANHO_MINIMO) {
+            return palavra;
+        }
+        String radical = removerPlural(palavra);
+        if (radical.endsWith("mente") && radical.length() - 5 >= TAMANHO_MINIMO) {
+            radical = radical.substring(0, radical.length() - 5);
+        }
+        char ultima = radical.charAt(radical.length() - 1);
+        if ((ultima == 'a' || ultima == 'e' || ultima == 'o') && radical.length() > TAMANHO_MINIMO) {
+            radical = radical.substring(0, radical.length() - 1);
+        }
+        return radical;
+    }
+
+    private static String removerPlural(String palavra) {
+        if (!palavra.endsWith("s") || palavra.endsWith("ss")) {
+            return palavra;
+        }
+        int n = palavra.length();
+        if (palavra.endsWith("ões") || palavra.endsWith("ães")) {
+            return palavra.substring(0, n - 3) + "ão";
+        }
+        if (palavra.endsWith("ais")) {
+            return palavra.substring(0, n - 3) + "al";
+        }
+        if (palavra.endsWith("éis")) {
+            return palavra.substring(0, n - 3) + "el";
+        }
+        if (palavra.endsWith("óis")) {
+            return palavra.substring(0, n - 3) + "ol";
+        }
+        if (palavra.endsWith("ns")) {
+            return palavra.substring(0, n - 2) + "m";
+        }
+        if (palavra.endsWith("res") || palavra.endsWith("zes") || palavra.endsWith("ses")) {
+            return palavra.substring(0, n - 2);
+        }
+        return palavra.substring(0, n - 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Prepara os textos das fontes antes de irem para o prompt: descarta os quase idênticos (similaridade de
+ * Jaccard entre shingles de palavras acima de {@code ai.prompt.similarity-threshold}) e corta o restante para
+ * caber em {@code ai.prompt.max-input-tokens}, dividindo o orçamento entre os textos.
+ */
+@Slf4j
+@Component
+public class PromptBudget {
+
+    // aproximação usual de ~4 caracteres por token
+    static final int CARACTERES_POR_TOKEN = 4;
+
+    private final AiProperties.Prompt config;
+
+    public PromptBudget(AiProperties aiProperties) {
+        this.config = aiProperties.getPrompt();
+    }
+
+    public static int estimarTokens(int caracteres) {
+        return (caracteres + CARACTERES_POR_TOKEN - 1) / CARACTERES_POR_TOKEN;
+    }
+
+    /**
+     * Textos na mesma ordem de entrada, sem os quase duplicados (fica o primeiro) e dentro do orçamento.
+     */
+    public List<String> aplicar(String signo, List<String> textos) {
+        List<String> unicos = deduplicar(textos);
+        List<String> cortados = cortar(unicos);
+        if (log.isDebugEnabled()) {
+            int antes = textos.stream().mapToInt(String::length).sum();
+            int depois = cortados.stream().mapToInt(String::length).sum();
+            log.debug("Textos de {}: {} -> {} (deduplicados), ~{} -> ~{} tokens", signo, textos.size(), unicos.size(),
+                    estimarTokens(antes), estimarTokens(depois));
+        }
+        return cortados;
+    }
+
+    private List<String> deduplicar(List<String> textos) {
+        List<String> unicos = new ArrayList<>();
+        List<Set<String>> shinglesMantidos = new ArrayList<>();
+        for (String texto : textos) {
+            Set<String> shingles = shingles(texto);
+            boolean duplicado = shinglesMantidos.stream()
+                    .anyMatch(outro -> jaccard(shingles, outro) >= config.getSimilarityThreshold());
+            if (!duplicado) {
+                unicos.add(texto);
+                shinglesMantidos.add(shingles);
+            }
+        }
+        return unicos;
+    }
+
+    private Set<String> shingles(String texto) {
+        String[] palavras = texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> validas = new ArrayList<>(palavras.length);
+        for (String palavra : palavras) {
+            if (!palavra.isEmpty()) {
+                validas.add(palavra);
+            }
+        }
+        int tamanho = Math.max(1, Math.min(config.getShingleSize(), validas.size()));
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + tamanho <= validas.size(); i++) {
+            shingles.add(String.join(" ", validas.subList(i, i + tamanho)));
+        }
+        return shingles;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        Set<String> menor = a.size() <= b.size() ? a : b;
+        Set<String> maior = menor == a ? b : a;
+        long comuns = menor.stream().filter(maior::contains).count();
+        return (double) comuns / (a.size() + b.size() - comuns);
+    }
+
+    /**
+     * Distribui o orçamento de caracteres em partes iguais; o que um texto curto não usa vai para os demais.
+     */
+    private List<String> cortar(List<String> textos) {
+        if (config.getMaxInputTokens() <= 0) {
+            return textos;
+        }
+        int restante = config.getMaxInputTokens() * CARACTERES_POR_TOKEN;
+        int[] limites = new int[textos.size()];
+        List<Integer> porTamanho = IntStream.range(0, textos.size()).boxed()
+                .sorted(Comparator.comparingInt(i -> textos.get(i).length()))
+                .toList();
+        for (int k = 0; k < porTamanho.size(); k++) {
+            int i = porTamanho.get(k);
+            int cota = restante / (porTamanho.size() - k);
+            limites[i] = Math.min(textos.get(i).length(), cota);
+            restante -= limites[i];
+        }
+        List<String> cortados = new ArrayList<>(textos.size());
+        for (int i = 0; i < textos.size(); i++) {
+            cortados.add(cortar(textos.get(i), limites[i]));
+        }
+        return cortados;
+    }
+
+    private static String cortar(String texto, int limite) {
+        if (texto.length() <= limite) {
+            return texto;
+        }
+        int fim = texto.lastIndexOf(' ', limite);
+        return texto.substring(0, fim > limite / 2 ? fim : limite).stripTrailing() + "…";
+    }
+}
@@ -0,0 +1,84 @@
+package com.logicalastrology.nlp;
+
+import java.util.function.Consumer;
+
+/**
+ * Extrai, à medida que o JSON da IA chega em pedaços, o texto do campo {@code summary}, já sem as
+ * sequências de escape, para que ele possa ser exibido antes de a resposta terminar.
+ */
+final class ResumoIncremental implements Consumer<String> {
+
+    private static final String CAMPO = "\"summary\"";
+
+    private enum Estado { PROCURANDO_CAMPO, PROCURANDO_VALOR, NO_VALOR, ESCAPE, UNICODE, CONCLUIDO }
+
+    private final Consumer<String> destino;
+    private final StringBuilder pendente = new StringBuilder();
+    private final StringBuilder unicode = new StringBuilder(4);
+    private Estado estado = Estado.PROCURANDO_CAMPO;
+
+    ResumoIncremental(Consumer<String> destino) {
+        this.destino = destino;
+    }
+
+    @Override
+    public void accept(String trecho) {
+        StringBuilder saida = new StringBuilder();
+        for (int i = 0; i < trecho.length() && estado != Estado.CONCLUIDO; i++) {
+            char c = trecho.charAt(i);
+            switch (estado) {
+                case PROCURANDO_CAMPO -> {
+                    pendente.append(c);
+                    if (pendente.length() > CAMPO.length()) {
+                        pendente.deleteCharAt(0);
+                    }
+                    if (CAMPO.contentEquals(pendente)) {
+                        estado = Estado.PROCURANDO_VALOR;
+                    }
+                }
+                case PROCURANDO_VALOR -> {
+                    if (c == '"') {
+                        estado = Estado.NO_VALOR;
+                    }
+                }
+                case NO_VALOR -> {
+                    if (c == '\\') {
+                        estado = Estado.ESCAPE;
+                    } else if (c == '"') {
+                        estado = Estado.CONCLUIDO;
+                    } else {
+                        saida.append(c);
+                    }
+                }
+                case ESCAPE -> {
+                    estado = Estado.NO_VALOR;
+                    switch (c) {
+                        case 'n' -> saida.append('\n');
+                        case 't' -> saida.append('\t');
+                        case 'r' -> { }
+                        case 'u' -> {
+                            unicode.setLength(0);
+                            estado = Estado.UNICODE;
+                        }
+                        default -> saida.append(c);
+                    }
+                }
+                case UNICODE -> {
+                    unicode.append(c);
+                    if (unicode.length() == 4) {
+                        try {
+                            saida.append((char) Integer.parseInt(unicode.toString(), 16));
+                        } catch (NumberFormatException ignored) {
+                            // sequência inválida: descarta
+                        }
+                        estado = Estado.NO_VALOR;
+                    }
+                }
+                default -> { }
+            }
+        }
+        if (!saida.isEmpty()) {
+            destino.accept(saida.toString());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.logicalastrology.nlp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Contador de palavras com endereçamento aberto e contagens em {@code int[]},
+ * sem boxing nem uma entrada de mapa por palavra.
+ */
+final class WordCounter {
+
+    private String[] chaves;
+    private int[] contagens;
+    private int tamanho;
+
+    WordCounter(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(16, capacidadeEsperada * 2) - 1) << 1;
+        this.chaves = new String[capacidade];
+        this.contagens = new int[capacidade];
+    }
+
+    void increment(String palavra) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(palavra.hashCode()) & mascara;
+        while (chaves[i] != null) {
+            if (chaves[i].equals(palavra)) {
+                contagens[i]++;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = palavra;
+        contagens[i] = 1;
+        if (++tamanho * 2 > chaves.length) {
+            redimensionar();
+        }
+    }
+
+    int count(String palavra) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(palavra.hashCode()) & mascara;
+        while (chaves[i] != null) {
+            if (chaves[i].equals(palavra)) {
+                return contagens[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return 0;
+    }
+
+    int size() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna as {@code limite} palavras mais frequentes (empates em ordem alfabética) usando um heap limitado.
+     */
+    List<String> top(int limite) {
+        return top(limite, palavra -> 0);
+    }
+
+    /**
+     * Como {@link #top(int)}, mas ordenando primeiro pela {@code prioridade} informada e depois pela frequência.
+     */
+    List<String> top(int limite, ToIntFunction<String> prioridade) {
+        if (limite <= 0 || tamanho == 0) {
+            return List.of();
+        }
+        Comparator<Integer> ordem = Comparator.<Integer>comparingInt(i -> prioridade.applyAsInt(chaves[i]))
+                .thenComparingInt(i -> contagens[i])
+                .thenComparing(i -> chaves[i], Comparator.reverseOrder());
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limite + 1, ordem);
+        for (int i = 0; i < chaves.length; i++) {
+            if (chaves[i] == null) {
+                continue;
+            }
+            if (heap.size() < limite) {
+                heap.add(i);
+            } else if (ordem.compare(i, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        List<String> resultado = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            resultado.add(chaves[heap.poll()]);
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    private void redimensionar() {
+        String[] antigasChaves = chaves;
+        int[] antigasContagens = contagens;
+        chaves = new String[antigasChaves.length * 2];
+        contagens = new int[antigasChaves.length * 2];
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < antigasChaves.length; j++) {
+            if (antigasChaves[j] == null) {
+                continue;
+            }
+            int i = espalhar(antigasChaves[j].hashCode()) & mascara;
+            while (chaves[i] != null) {
+                i = (i + 1) & mascara;
+            }
+            chaves[i] = antigasChaves[j];
+            contagens[i] = antigasContagens[j];
+        }
+    }
+
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
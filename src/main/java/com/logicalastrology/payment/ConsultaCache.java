@@ -0,0 +1,101 @@
+package com.logicalastrology.payment;
+
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Cache de curta duração para consultas ao Mercado Pago. Consultas simultâneas da mesma chave
+ * compartilham uma única chamada remota. Falhas e valores recusados pelo filtro do construtor não ficam
+ * guardados: só valem para quem estava esperando aquela chamada. Quem espera a chamada de outra thread
+ * desiste após {@link #ESPERA_MAXIMA}.
+ */
+final class ConsultaCache<K, V> {
+
+    private static final int LIMPEZA_A_PARTIR_DE = 1000;
+    static final Duration ESPERA_MAXIMA = Duration.ofSeconds(30);
+
+    @FunctionalInterface
+    interface ConsultaRemota<V> {
+        V buscar() throws MPApiException, MPException;
+    }
+
+    private record Entrada<V>(CompletableFuture<V> valor, long expiraEm) {
+        boolean expirada(long agora) {
+            return valor.isDone() && agora - expiraEm > 0;
+        }
+    }
+
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final Predicate<? super V> guardar;
+
+    ConsultaCache(Duration ttl) {
+        this(ttl, valor -> true);
+    }
+
+    ConsultaCache(Duration ttl, Predicate<? super V> guardar) {
+        this.ttlNanos = ttl.toNanos();
+        this.guardar = guardar;
+    }
+
+    V obter(K chave, ConsultaRemota<V> consulta) throws MPApiException, MPException {
+        if (ttlNanos <= 0) {
+            return consulta.buscar();
+        }
+        long agora = System.nanoTime();
+        Entrada<V> minha = new Entrada<>(new CompletableFuture<>(), agora + ttlNanos);
+        Entrada<V> atual = entradas.compute(chave, (k, e) -> e == null || e.expirada(agora) ? minha : e);
+        if (atual == minha) {
+            if (entradas.size() > LIMPEZA_A_PARTIR_DE) {
+                entradas.values().removeIf(e -> e.expirada(agora));
+            }
+            try {
+                V valor = consulta.buscar();
+                minha.valor().complete(valor);
+                if (!guardar.test(valor)) {
+                    entradas.remove(chave, minha);
+                }
+            } catch (Throwable ex) {
+                // inclui Error (ex.: falha ao carregar classes do SDK): quem espera não pode ficar preso
+                entradas.remove(chave, minha);
+                minha.valor().completeExceptionally(ex);
+            }
+        }
+        return aguardar(atual.valor());
+    }
+
+    private static <V> V aguardar(CompletableFuture<V> valor) throws MPApiException, MPException {
+        try {
+            return valor.get(ESPERA_MAXIMA.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new MPException("Consulta ao Mercado Pago em andamento não terminou em " + ESPERA_MAXIMA.toSeconds() + " s");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MPException("Espera pela consulta ao Mercado Pago interrompida", ex);
+        } catch (ExecutionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof MPApiException api) {
+                throw api;
+            }
+            if (causa instanceof MPException mp) {
+                throw mp;
+            }
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw new MPException(causa);
+        }
+    }
+}
@@ -24,12 +24,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
@@ -42,14 +44,20 @@ public class MercadoPagoClient {
     private final String notificationUrl;
     private final String backUrl;
     private final String publicKey;
+    private final ConsultaCache<Long, ResumoPagamento> pagamentos;
+    private final ConsultaCache<Long, String> preferenciasPorOrdem;
 
     public MercadoPagoClient(@Value("${mercadopago.access-token}") String accessToken,
                              @Value("${mercadopago.notification-url:http://localhost:8080/api/pagamentos/webhook}") String notificationUrl,
                              @Value("${mercadopago.back-url:https://logical-astrology-production.up.railway.app/}") String backUrl,
-                             @Value("${mercadopago.public-key}") String publicKey) {
+                             @Value("${mercadopago.public-key}") String publicKey,
+                             @Value("${mercadopago.lookup-cache-ttl:30s}") Duration lookupCacheTtl) {
         this.notificationUrl = notificationUrl;
         this.backUrl = backUrl;
         this.publicKey = publicKey;
+        // pagamento não aprovado ainda vai mudar de status: as novas tentativas do webhook precisam consultar de novo
+        this.pagamentos = new ConsultaCache<>(lookupCacheTtl, pagamento -> pagamento != null && pagamento.aprovado());
+        this.preferenciasPorOrdem = new ConsultaCache<>(lookupCacheTtl, Objects::nonNull);
         MercadoPagoConfig.setAccessToken(accessToken);
         this.preferenceClient = new PreferenceClient();
         this.merchantOrderClient = new MerchantOrderClient();
@@ -145,23 +153,26 @@ public class MercadoPagoClient {
         return false;
     }
 
+    /**
+     * Devolve a preferência de um pagamento aprovado. O Mercado Pago envia várias notificações para o mesmo
+     * pagamento, então as duas consultas passam por um cache curto ({@code mercadopago.lookup-cache-ttl}); só
+     * pagamentos aprovados ficam guardados.
+     * A ordem só é consultada depois que o pagamento informa o id dela, então as chamadas não podem ser paralelas.
+     */
     public Optional<String> extrairPreferenceIdDePagamento(String paymentId) {
         try {
             long paymentNumericId = Long.parseLong(paymentId);
-            Payment payment = paymentClient.get(paymentNumericId);
-            if (payment == null || payment.getOrder() == null || payment.getOrder().getId() == null) {
+            ResumoPagamento pagamento = pagamentos.obter(paymentNumericId, () -> resumir(paymentClient.get(paymentNumericId)));
+            if (pagamento == null || pagamento.orderId() == null || !pagamento.aprovado()) {
                 return Optional.empty();
             }
 
-            MerchantOrder merchantOrder = merchantOrderClient.get(payment.getOrder().getId());
-            if (merchantOrder == null) {
-                return Optional.empty();
-            }
-
-            String preference = merchantOrder.getPreferenceId();
-            if ("approved".equalsIgnoreCase(payment.getStatus()) && preference != null) {
-                return Optional.of(preference);
-            }
+            Long orderId = pagamento.orderId();
+            String preference = preferenciasPorOrdem.obter(orderId, () -> {
+                MerchantOrder merchantOrder = merchantOrderClient.get(orderId);
+                return merchantOrder != null ? merchantOrder.getPreferenceId() : null;
+            });
+            return Optional.ofNullable(preference);
         } catch (NumberFormatException ex) {
             log.warn("Identificador de pagamento inválido: {}", paymentId);
         } catch (MPApiException | MPException ex) {
@@ -170,6 +181,20 @@ public class MercadoPagoClient {
         return Optional.empty();
     }
 
+    private static ResumoPagamento resumir(Payment payment) {
+        if (payment == null) {
+            return null;
+        }
+        Long orderId = payment.getOrder() != null ? payment.getOrder().getId() : null;
+        return new ResumoPagamento(payment.getStatus(), orderId);
+    }
+
+    private record ResumoPagamento(String status, Long orderId) {
+        boolean aprovado() {
+            return "approved".equalsIgnoreCase(status);
+        }
+    }
+
     @Getter
     @Builder
     @AllArgsConstructor
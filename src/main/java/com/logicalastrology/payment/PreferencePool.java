@@ -0,0 +1,118 @@
+package com.logicalastrology.payment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserva de preferências do Mercado Pago criadas com antecedência para cada par (título, valor).
+ * Um checkout retira uma preferência pronta da reserva e, se não houver, a criação roda no
+ * {@code preferenciaExecutor}; em ambos os casos a reserva é reabastecida em segundo plano. A reserva de
+ * um par só começa no primeiro checkout dele e tem no máximo {@code mercadopago.preference-pool.size}
+ * preferências; as que passam de {@code max-age} sem uso ficam órfãs no Mercado Pago e são contadas no log.
+ */
+@Slf4j
+@Component
+public class PreferencePool {
+
+    private record Chave(String titulo, BigDecimal valor) {
+        Chave {
+            valor = valor.setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    private record Reservada(MercadoPagoClient.PreferenceResponse preferencia, long criadaEm) {
+    }
+
+    private final MercadoPagoClient mercadoPagoClient;
+    private final Executor preferenciaExecutor;
+    private final int tamanho;
+    private final long idadeMaximaNanos;
+    private final Map<Chave, Deque<Reservada>> reservas = new ConcurrentHashMap<>();
+    private final Map<Chave, AtomicInteger> emCriacao = new ConcurrentHashMap<>();
+    private final AtomicLong descartadas = new AtomicLong();
+
+    public PreferencePool(MercadoPagoClient mercadoPagoClient,
+                          @Qualifier("preferenciaExecutor") Executor preferenciaExecutor,
+                          @Value("${mercadopago.preference-pool.size:2}") int tamanho,
+                          @Value("${mercadopago.preference-pool.max-age:12h}") Duration idadeMaxima) {
+        this.mercadoPagoClient = mercadoPagoClient;
+        this.preferenciaExecutor = preferenciaExecutor;
+        this.tamanho = Math.max(0, tamanho);
+        this.idadeMaximaNanos = idadeMaxima.toNanos();
+    }
+
+    /**
+     * Devolve uma preferência da reserva (futuro já concluído) ou cria uma nova em segundo plano.
+     * O futuro é concluído com {@code null} se o Mercado Pago não criar a preferência.
+     */
+    public CompletableFuture<MercadoPagoClient.PreferenceResponse> obter(String titulo, BigDecimal valor, LocalDateTime expiraEm) {
+        Chave chave = new Chave(titulo, valor);
+        Deque<Reservada> fila = reservas.get(chave);
+        Reservada reservada;
+        while (fila != null && (reservada = fila.pollFirst()) != null) {
+            if (System.nanoTime() - reservada.criadaEm() < idadeMaximaNanos) {
+                reabastecer(chave);
+                return CompletableFuture.completedFuture(reservada.preferencia());
+            }
+            log.info("Preferência {} reservada para {} venceu sem uso ({} descartadas desde o início)",
+                    reservada.preferencia().getId(), chave.titulo(), descartadas.incrementAndGet());
+        }
+        CompletableFuture<MercadoPagoClient.PreferenceResponse> criada = CompletableFuture.supplyAsync(
+                () -> mercadoPagoClient.criarPreferencia(titulo, valor, expiraEm), preferenciaExecutor);
+        reabastecer(chave);
+        return criada;
+    }
+
+    private void reabastecer(Chave chave) {
+        if (tamanho == 0) {
+            return;
+        }
+        Deque<Reservada> fila = reservas.computeIfAbsent(chave, k -> new ConcurrentLinkedDeque<>());
+        AtomicInteger criando = emCriacao.computeIfAbsent(chave, k -> new AtomicInteger());
+        while (true) {
+            int atual = criando.get();
+            if (fila.size() + atual >= tamanho) {
+                return;
+            }
+            if (criando.compareAndSet(atual, atual + 1)) {
+                try {
+                    preferenciaExecutor.execute(() -> criar(chave, fila, criando));
+                } catch (RejectedExecutionException ex) {
+                    criando.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void criar(Chave chave, Deque<Reservada> fila, AtomicInteger criando) {
+        try {
+            // a validade real da previsão é controlada pela aplicação; aqui vale apenas a idade máxima da reserva
+            MercadoPagoClient.PreferenceResponse preferencia = mercadoPagoClient.criarPreferencia(
+                    chave.titulo(), chave.valor(), LocalDateTime.now().plusNanos(idadeMaximaNanos));
+            if (preferencia != null && StringUtils.hasText(preferencia.getId())) {
+                fila.addLast(new Reservada(preferencia, System.nanoTime()));
+                log.debug("Preferência {} reservada para {} ({})", preferencia.getId(), chave.titulo(), chave.valor());
+            }
+        } finally {
+            criando.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.logicalastrology.repository;
+
+import com.logicalastrology.model.AiResponseCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AiResponseCacheRepository extends JpaRepository<AiResponseCacheEntry, String> {
+
+    Optional<AiResponseCacheEntry> findByHashAndExpiraEmAfter(String hash, LocalDateTime agora);
+
+    @Modifying
+    @Query("delete from AiResponseCacheEntry e where e.expiraEm < :agora")
+    int deleteExpired(@Param("agora") LocalDateTime agora);
+
+    @Query("select e.hash from AiResponseCacheEntry e order by e.criadoEm asc")
+    List<String> findOldestHashes(Pageable pageable);
+}
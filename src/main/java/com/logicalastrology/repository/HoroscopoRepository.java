@@ -2,24 +2,45 @@ package com.logicalastrology.repository;
 
 import com.logicalastrology.model.Horoscopo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * As consultas por signo recebem a chave normalizada ({@link Horoscopo#chave(String)}) e comparam por igualdade,
+ * para usar os índices de {@code tb_horoscopo}.
+ */
 public interface HoroscopoRepository extends JpaRepository<Horoscopo, Long> {
 
-    List<Horoscopo> findBySignoIgnoreCase(String sign);
-
-    List<Horoscopo> findBySignoIgnoreCaseAndDataColetaBetween(String sign,
-                                                             LocalDateTime start,
-                                                             LocalDateTime end);
+    List<Horoscopo> findBySignoChaveAndDataColetaBetween(String signoChave,
+                                                        LocalDateTime start,
+                                                        LocalDateTime end);
 
     List<Horoscopo> findByDataColetaBetween(LocalDateTime start, LocalDateTime end);
 
-    List<Horoscopo> findTop10BySignoIgnoreCaseOrderByDataColetaDesc(String sign);
+    List<Horoscopo> findTop10BySignoChaveOrderByDataColetaDesc(String signoChave);
+
+    @Query("select distinct h.signoChave as signo, h.fonteChave as fonte from Horoscopo h "
+            + "where h.dataColeta >= :inicio and h.dataColeta < :fim")
+    List<SignoFonte> findSignoFonteColetados(@Param("inicio") LocalDateTime inicio,
+                                             @Param("fim") LocalDateTime fim);
+
+    /**
+     * Preenche as chaves normalizadas de registros gravados antes de as colunas existirem.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Horoscopo h set h.signoChave = lower(trim(h.signo)), h.fonteChave = lower(trim(h.fonte)) "
+            + "where h.signoChave is null or (h.fonteChave is null and h.fonte is not null)")
+    int preencherChaves();
+
+    interface SignoFonte {
+        String getSigno();
 
-    boolean existsBySignoIgnoreCaseAndFonteIgnoreCaseAndDataColetaBetween(String signo,
-                                                                           String fonte,
-                                                                           LocalDateTime inicio,
-                                                                           LocalDateTime fim);
+        String getFonte();
+    }
 }
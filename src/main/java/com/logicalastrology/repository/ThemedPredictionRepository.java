@@ -1,10 +1,17 @@
 package com.logicalastrology.repository;
 
 import com.logicalastrology.model.PredictionStatus;
+import com.logicalastrology.model.PredictionTheme;
 import com.logicalastrology.model.ThemedPrediction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,5 +19,42 @@ public interface ThemedPredictionRepository extends JpaRepository<ThemedPredicti
 
     Optional<ThemedPrediction> findByPreferenceId(String preferenceId);
 
+    Optional<StatusPrevisao> findStatusById(UUID id);
+
+    List<ThemedPrediction> findByStatusAndMensagemIaIsNullAndAtualizadoEmBefore(PredictionStatus status, LocalDateTime limite);
+
     boolean existsByPreferenceIdAndStatusAndExpiresAtAfter(String preferenceId, PredictionStatus status, LocalDateTime now);
+
+    /**
+     * Entre as previsões informadas, as pendentes já vencidas.
+     */
+    @Query("select p.id from ThemedPrediction p where p.id in :ids and p.status = :pendente and p.expiresAt < :agora")
+    List<UUID> findIdsVencidas(@Param("ids") Collection<UUID> ids,
+                               @Param("pendente") PredictionStatus pendente,
+                               @Param("agora") LocalDateTime agora);
+
+    /**
+     * Expira numa única instrução as previsões pendentes vencidas, incrementando a versão como o Hibernate faria.
+     */
+    @Modifying
+    @Transactional
+    @Query("update ThemedPrediction p set p.status = :expirado, p.version = p.version + 1, p.atualizadoEm = :agora "
+            + "where p.status = :pendente and p.expiresAt < :agora")
+    int expirarVencidas(@Param("pendente") PredictionStatus pendente,
+                        @Param("expirado") PredictionStatus expirado,
+                        @Param("agora") LocalDateTime agora);
+
+    interface StatusPrevisao {
+        String getPreferenceId();
+
+        PredictionStatus getStatus();
+
+        LocalDateTime getExpiresAt();
+
+        PredictionTheme getTema();
+
+        String getInitPoint();
+
+        String getMensagemIa();
+    }
 }
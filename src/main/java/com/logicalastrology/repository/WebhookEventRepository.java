@@ -0,0 +1,90 @@
+package com.logicalastrology.repository;
+
+import com.logicalastrology.model.WebhookEvent;
+import com.logicalastrology.model.WebhookEventStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, String> {
+
+    /**
+     * Insere o evento se o id ainda não existir e devolve quantas linhas foram inseridas. Duas inserções
+     * simultâneas do mesmo id ainda podem violar a chave primária; quem chama trata esse caso como repetição.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into tb_webhook_event (payment_id, status, tentativas, proxima_tentativa_em, recebido_em, atualizado_em) "
+            + "select :paymentId, 'PENDING', 0, :agora, :agora, :agora "
+            + "where not exists (select 1 from tb_webhook_event where payment_id = :paymentId)", nativeQuery = true)
+    int inserir(@Param("paymentId") String paymentId, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Notificação repetida de um pagamento que ainda não foi concluído: zera as tentativas e o deixa pronto
+     * para processar já, inclusive se tinha desistido ({@code FAILED}). Um evento em processamento continua
+     * com o processador atual, mas a próxima tentativa volta a contar do início. Eventos {@code DONE} não mudam.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebhookEvent e set e.status = case when e.status = :processando then :processando else :pendente end, "
+            + "e.tentativas = 0, e.proximaTentativaEm = :agora, e.atualizadoEm = :agora "
+            + "where e.paymentId = :paymentId and e.status <> :concluido")
+    int reabrir(@Param("paymentId") String paymentId,
+                @Param("concluido") WebhookEventStatus concluido,
+                @Param("processando") WebhookEventStatus processando,
+                @Param("pendente") WebhookEventStatus pendente,
+                @Param("agora") LocalDateTime agora);
+
+    @Query("select e.paymentId from WebhookEvent e where e.status = :status and e.proximaTentativaEm <= :agora "
+            + "order by e.proximaTentativaEm asc")
+    List<String> findProntos(@Param("status") WebhookEventStatus status,
+                             @Param("agora") LocalDateTime agora,
+                             Pageable pageable);
+
+    /**
+     * Troca o status apenas se o evento ainda estiver no status esperado; devolve 0 se outro processo chegou antes.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebhookEvent e set e.status = :novo, e.atualizadoEm = :agora "
+            + "where e.paymentId = :paymentId and e.status = :esperado")
+    int trocarStatus(@Param("paymentId") String paymentId,
+                     @Param("esperado") WebhookEventStatus esperado,
+                     @Param("novo") WebhookEventStatus novo,
+                     @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Transactional
+    @Query("update WebhookEvent e set e.status = :novo, e.tentativas = :tentativas, e.proximaTentativaEm = :proxima, "
+            + "e.ultimoErro = :erro, e.atualizadoEm = :agora where e.paymentId = :paymentId")
+    int reagendar(@Param("paymentId") String paymentId,
+                  @Param("novo") WebhookEventStatus novo,
+                  @Param("tentativas") int tentativas,
+                  @Param("proxima") LocalDateTime proxima,
+                  @Param("erro") String erro,
+                  @Param("agora") LocalDateTime agora);
+
+    /**
+     * Devolve à fila eventos presos em processamento (ex.: a aplicação caiu no meio do trabalho).
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebhookEvent e set e.status = :pendente, e.atualizadoEm = :agora "
+            + "where e.status = :processando and e.atualizadoEm < :limite")
+    int liberarTravados(@Param("processando") WebhookEventStatus processando,
+                        @Param("pendente") WebhookEventStatus pendente,
+                        @Param("limite") LocalDateTime limite,
+                        @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Transactional
+    @Query("delete from WebhookEvent e where e.status in :status and e.atualizadoEm < :limite")
+    int deleteFinalizadosAntesDe(@Param("status") List<WebhookEventStatus> status,
+                                 @Param("limite") LocalDateTime limite);
+}
@@ -1,8 +0,0 @@
-package com.logicalastrology.scraper;
-
-import java.io.IOException;
-import java.util.Map;
-
-public interface BaseScraper {
-    Map<String, String> fetchAll() throws IOException;
-}
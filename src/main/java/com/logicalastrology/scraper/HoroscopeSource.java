@@ -0,0 +1,61 @@
+package com.logicalastrology.scraper;
+
+import java.time.Duration;
+
+/**
+ * Fonte de horóscopo coletada pelo {@link com.logicalastrology.service.ScraperService}.
+ * Cada implementação registrada como bean do Spring entra automaticamente no scraping diário;
+ * basta declarar como montar a URL e quais seletores contêm o texto.
+ */
+public interface HoroscopeSource {
+
+    /**
+     * Nome gravado em {@code Horoscopo.fonte}.
+     */
+    String name();
+
+    /**
+     * Template da URL com um {@code %s} que recebe o slug do signo.
+     */
+    String urlTemplate();
+
+    String selector();
+
+    /**
+     * Seletor usado quando o principal não retorna texto.
+     */
+    String fallbackSelector();
+
+    /**
+     * Slug usado pela fonte para o signo (ex.: "aries"). Por padrão é o próprio nome normalizado.
+     */
+    default String slug(String sign) {
+        return sign;
+    }
+
+    /**
+     * Máximo de requisições simultâneas para esta fonte. Zero usa {@code scraper.max-concurrent-per-source}.
+     */
+    default int maxConcurrency() {
+        return 0;
+    }
+
+    /**
+     * Intervalo mínimo entre o início de duas requisições a esta fonte (limite de taxa). Nulo usa
+     * {@code scraper.min-interval-per-source}; zero desliga o limite.
+     */
+    default Duration minInterval() {
+        return null;
+    }
+
+    /**
+     * Timeout de conexão/leitura. Nulo usa {@code scraper.request-timeout}.
+     */
+    default Duration timeout() {
+        return null;
+    }
+
+    default String url(String sign) {
+        return String.format(urlTemplate(), slug(sign));
+    }
+}
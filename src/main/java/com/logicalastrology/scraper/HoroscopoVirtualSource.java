@@ -0,0 +1,27 @@
+package com.logicalastrology.scraper;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class HoroscopoVirtualSource implements HoroscopeSource {
+
+    @Override
+    public String name() {
+        return "Horoscopo Virtual";
+    }
+
+    @Override
+    public String urlTemplate() {
+        return "https://www.horoscopovirtual.com.br/horoscopo/%s";
+    }
+
+    @Override
+    public String selector() {
+        return ".text-wrapper p";
+    }
+
+    @Override
+    public String fallbackSelector() {
+        return ".text-wrapper";
+    }
+}
@@ -0,0 +1,27 @@
+package com.logicalastrology.scraper;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class JoaoBiduSource implements HoroscopeSource {
+
+    @Override
+    public String name() {
+        return "João Bidu";
+    }
+
+    @Override
+    public String urlTemplate() {
+        return "https://joaobidu.com.br/horoscopo-do-dia/horoscopo-do-dia-para-%s/";
+    }
+
+    @Override
+    public String selector() {
+        return ".MsoNormal";
+    }
+
+    @Override
+    public String fallbackSelector() {
+        return "article p";
+    }
+}
@@ -1,31 +0,0 @@
-package com.logicalastrology.scraper;
-
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
-import org.springframework.stereotype.Component;
-
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
-/*
-  Simple Jsoup-based scraper for demonstration.
-  Real selectors must be adapted for each source.
-*/
-@Component
-public class PersonareScraper implements BaseScraper {
-
-    @Override
-    public Map<String, String> fetchAll() throws IOException {
-        Map<String, String> results = new HashMap<>();
-        // placeholder: in a real implementation iterate signs and fetch pages
-        String url = "https://www.personare.com.br/horoscopo/";
-        Document doc = Jsoup.connect(url).userAgent("Mozilla/5.0").get();
-        // Attempt to find a sample element (selectors likely need adjustment)
-        Elements el = doc.select("p");
-        String sample = el.isEmpty() ? "" : el.get(0).text();
-        results.put("sample", sample);
-        return results;
-    }
-}
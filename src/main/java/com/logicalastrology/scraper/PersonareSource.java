@@ -0,0 +1,27 @@
+package com.logicalastrology.scraper;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class PersonareSource implements HoroscopeSource {
+
+    @Override
+    public String name() {
+        return "Personare";
+    }
+
+    @Override
+    public String urlTemplate() {
+        return "https://www.personare.com.br/horoscopo-do-dia/%s";
+    }
+
+    @Override
+    public String selector() {
+        return "div.sc-6d2a5120-5.fgTbnr p";
+    }
+
+    @Override
+    public String fallbackSelector() {
+        return "div.sc-6d2a5120-5.fgTbnr";
+    }
+}
@@ -0,0 +1,99 @@
+package com.logicalastrology.service;
+
+import com.logicalastrology.dto.AnaliseSignoDTO;
+import com.logicalastrology.dto.CacheEstatisticasDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache em memória das análises já finalizadas ({@code generated}), por (signo, data).
+ * Análises geradas não mudam mais, então só são removidas por capacidade (LRU), por idade
+ * ou quando uma nova análise do mesmo dia é gravada.
+ */
+@Component
+public class AnaliseCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnaliseCache.class);
+
+    private final int capacidade;
+    private final int retencaoDias;
+    private final Map<Chave, AnaliseSignoDTO> entradas;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AnaliseCache(@Value("${analise.cache.max-entries:512}") int capacidade,
+                        @Value("${analise.cache.retention-days:7}") int retencaoDias) {
+        this.capacidade = Math.max(1, capacidade);
+        this.retencaoDias = Math.max(0, retencaoDias);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, AnaliseSignoDTO> eldest) {
+                return size() > AnaliseCache.this.capacidade;
+            }
+        };
+    }
+
+    public Optional<AnaliseSignoDTO> buscar(String signo, LocalDate data) {
+        AnaliseSignoDTO dto;
+        synchronized (entradas) {
+            dto = entradas.get(new Chave(signo, data));
+        }
+        (dto != null ? hits : misses).increment();
+        return Optional.ofNullable(dto);
+    }
+
+    public void guardar(String signo, LocalDate data, AnaliseSignoDTO dto) {
+        synchronized (entradas) {
+            entradas.put(new Chave(signo, data), dto);
+        }
+    }
+
+    public void invalidar(String signo, LocalDate data) {
+        synchronized (entradas) {
+            entradas.remove(new Chave(signo, data));
+        }
+    }
+
+    /**
+     * Descarta diariamente as análises mais antigas que {@code analise.cache.retention-days}.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void removerAntigas() {
+        LocalDate limite = LocalDate.now().minusDays(retencaoDias);
+        int removidas;
+        synchronized (entradas) {
+            int antes = entradas.size();
+            entradas.keySet().removeIf(chave -> chave.data().isBefore(limite));
+            removidas = antes - entradas.size();
+        }
+        LOGGER.info("{} análises anteriores a {} removidas do cache", removidas, limite);
+    }
+
+    public CacheEstatisticasDTO estatisticas() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int tamanho;
+        synchronized (entradas) {
+            tamanho = entradas.size();
+        }
+        return CacheEstatisticasDTO.builder()
+                .hits(h)
+                .misses(m)
+                .hitRatio(h + m == 0 ? 0.0 : (double) h / (h + m))
+                .tamanho(tamanho)
+                .capacidade(capacidade)
+                .build();
+    }
+
+    private record Chave(String signo, LocalDate data) {
+    }
+}
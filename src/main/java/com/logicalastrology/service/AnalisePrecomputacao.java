@@ -0,0 +1,92 @@
+package com.logicalastrology.service;
+
+import com.logicalastrology.nlp.NlpService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Gera as análises do dia em segundo plano assim que o scraping grava os horóscopos, para que as
+ * chamadas a {@code /api/analise/*} encontrem o resultado pronto. Falhas da IA são repetidas com backoff.
+ */
+@Component
+public class AnalisePrecomputacao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalisePrecomputacao.class);
+
+    private final AnaliseSignoService analiseSignoService;
+    private final NlpService nlpService;
+    private final Executor analiseExecutor;
+    private final TaskScheduler taskScheduler;
+    private final boolean habilitada;
+    private final int maxTentativas;
+    private final Duration backoffInicial;
+
+    public AnalisePrecomputacao(AnaliseSignoService analiseSignoService,
+                                NlpService nlpService,
+                                @Qualifier("analiseExecutor") Executor analiseExecutor,
+                                TaskScheduler taskScheduler,
+                                @Value("${analise.precompute.enabled:true}") boolean habilitada,
+                                @Value("${analise.precompute.max-attempts:3}") int maxTentativas,
+                                @Value("${analise.precompute.initial-backoff:30s}") Duration backoffInicial) {
+        this.analiseSignoService = analiseSignoService;
+        this.nlpService = nlpService;
+        this.analiseExecutor = analiseExecutor;
+        this.taskScheduler = taskScheduler;
+        this.habilitada = habilitada;
+        this.maxTentativas = Math.max(1, maxTentativas);
+        this.backoffInicial = backoffInicial;
+    }
+
+    @EventListener
+    public void aoColetarHoroscopos(HoroscoposColetadosEvent event) {
+        if (!habilitada || !nlpService.isAiAvailable()) {
+            return;
+        }
+        LOGGER.info("Pré-computando análises de {} signos para {}", event.signos().size(), event.data());
+        List<String> signos = event.signos();
+        int tamanhoLote = nlpService.getBatchSize();
+        for (int i = 0; i < signos.size(); i += tamanhoLote) {
+            agendar(List.copyOf(signos.subList(i, Math.min(i + tamanhoLote, signos.size()))), event.data(), 1);
+        }
+    }
+
+    private void agendar(List<String> signos, LocalDate data, int tentativa) {
+        analiseExecutor.execute(() -> executar(signos, data, tentativa));
+    }
+
+    private void executar(List<String> signos, LocalDate data, int tentativa) {
+        List<String> pendentes;
+        try {
+            pendentes = analiseSignoService.atualizarAnalises(signos, data).entrySet().stream()
+                    .filter(finalizada -> !finalizada.getValue())
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Falha ao pré-computar análises de {} em {}: {}", signos, data, ex.getMessage());
+            pendentes = signos;
+        }
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        if (tentativa >= maxTentativas) {
+            LOGGER.warn("Análises de {} em {} não foram finalizadas após {} tentativas", pendentes, data, tentativa);
+            return;
+        }
+        Duration espera = backoffInicial.multipliedBy(1L << (tentativa - 1));
+        LOGGER.info("Nova tentativa de pré-computar {} em {} daqui a {} s", pendentes, data, espera.toSeconds());
+        List<String> novaTentativa = pendentes;
+        taskScheduler.schedule(() -> agendar(novaTentativa, data, tentativa + 1), Instant.now().plus(espera));
+    }
+}
@@ -10,15 +10,31 @@ import com.logicalastrology.repository.HoroscopoRepository;
 import com.logicalastrology.repository.SignoAnaliseRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 public class AnaliseSignoService {
@@ -31,13 +47,21 @@ public class AnaliseSignoService {
     private final HoroscopoRepository horoscopoRepository;
     private final SignoAnaliseRepository signoAnaliseRepository;
     private final NlpService nlpService;
+    private final Executor analiseExecutor;
+    private final AnaliseCache analiseCache;
+    private final ConcurrentMap<ChaveAnalise, CompletableFuture<SignoAnalise>> geracoesEmAndamento =
+            new ConcurrentHashMap<>();
 
     public AnaliseSignoService(HoroscopoRepository horoscopoRepository,
                                SignoAnaliseRepository signoAnaliseRepository,
-                               NlpService nlpService) {
+                               NlpService nlpService,
+                               @Qualifier("analiseExecutor") Executor analiseExecutor,
+                               AnaliseCache analiseCache) {
         this.horoscopoRepository = horoscopoRepository;
         this.signoAnaliseRepository = signoAnaliseRepository;
         this.nlpService = nlpService;
+        this.analiseExecutor = analiseExecutor;
+        this.analiseCache = analiseCache;
     }
 
     public AnaliseSignoDTO analisar(String sign) {
@@ -49,21 +73,134 @@ public class AnaliseSignoService {
         LocalDate dataReferencia = data == null ? LocalDate.now() : data;
         LOGGER.info("Iniciando análise para o signo {} na data {}", normalized, dataReferencia);
 
+        Optional<AnaliseSignoDTO> emCache = analiseCache.buscar(normalized, dataReferencia);
+        if (emCache.isPresent()) {
+            return emCache.get();
+        }
+
         Optional<SignoAnalise> existenteHoje = signoAnaliseRepository
                 .findTopBySignoIgnoreCaseAndDataAnaliseOrderByCriadoEmDesc(normalized, dataReferencia);
         if (existenteHoje.isPresent() && existenteHoje.get().isGenerated()) {
             LOGGER.info("Análise encontrada para {} em {}. Reutilizando resultado existente.", normalized, dataReferencia);
-            return toDto(existenteHoje.get());
+            return armazenar(existenteHoje.get());
+        }
+
+        return armazenar(gerarUnica(normalized, dataReferencia, SignoAnalise::isGenerated));
+    }
+
+    /**
+     * Versão em streaming de {@link #analisar(String, LocalDate)}: quando a análise precisa ser gerada,
+     * o texto do resumo é repassado a {@code aoReceberTexto} enquanto a IA o produz. O futuro completa
+     * com a análise já gravada em {@link SignoAnalise}.
+     */
+    public CompletableFuture<AnaliseSignoDTO> analisarStream(String sign, LocalDate data, Consumer<String> aoReceberTexto) {
+        String normalized = normalize(sign);
+        LocalDate dataReferencia = data == null ? LocalDate.now() : data;
+        LOGGER.info("Iniciando análise em streaming para o signo {} na data {}", normalized, dataReferencia);
+
+        Optional<AnaliseSignoDTO> emCache = analiseCache.buscar(normalized, dataReferencia);
+        if (emCache.isPresent()) {
+            return CompletableFuture.completedFuture(emCache.get());
+        }
+
+        Reserva reserva = reservar(new ChaveAnalise(normalized, dataReferencia));
+        CompletableFuture<SignoAnalise> nova = reserva.futuro();
+        if (!reserva.propria()) {
+            LOGGER.info("Análise de {} em {} já está sendo gerada; aguardando resultado.", normalized, dataReferencia);
+            return nova.thenApply(this::armazenar);
+        }
+        try {
+            Optional<SignoAnalise> existente = signoAnaliseRepository
+                    .findTopBySignoIgnoreCaseAndDataAnaliseOrderByCriadoEmDesc(normalized, dataReferencia);
+            if (existente.isPresent() && existente.get().isGenerated()) {
+                nova.complete(existente.get());
+                return CompletableFuture.completedFuture(armazenar(existente.get()));
+            }
+            List<String> textos = carregarTextos(normalized, dataReferencia);
+            LOGGER.info("Enviando {} textos para IA consolidar análise de {} em {} (streaming)",
+                    textos.size(), normalized, dataReferencia);
+            return nlpService.analyzeStream(normalized, textos, aoReceberTexto)
+                    .thenApplyAsync(resultado -> persistir(normalized, dataReferencia, existente.orElse(null),
+                            textos, resultado), analiseExecutor)
+                    .whenComplete((analise, ex) -> {
+                        if (ex != null) {
+                            nova.completeExceptionally(ex);
+                        } else {
+                            nova.complete(analise);
+                        }
+                    })
+                    .thenApply(this::armazenar);
+        } catch (RuntimeException ex) {
+            nova.completeExceptionally(ex);
+            throw ex;
         }
+    }
 
-        SignoAnalise novaAnalise = gerarNovaAnalise(normalized, dataReferencia, existenteHoje.orElse(null));
-        return toDto(novaAnalise);
+    /**
+     * Garante que as análises dos signos na data reflitam os horóscopos gravados, gerando de novo apenas
+     * as que tiveram os textos de origem alterados, numa chamada em lote à IA. Retorna, por signo, se a
+     * análise ficou finalizada pela IA.
+     */
+    public Map<String, Boolean> atualizarAnalises(List<String> signs, LocalDate data) {
+        Map<String, Boolean> finalizadas = new LinkedHashMap<>();
+        gerarEmLote(signs.stream().map(this::normalize).distinct().toList(), data, true)
+                .forEach((signo, futuro) -> {
+                    try {
+                        SignoAnalise analise = aguardar(futuro);
+                        armazenar(analise);
+                        finalizadas.put(signo, analise.isGenerated());
+                    } catch (RuntimeException ex) {
+                        LOGGER.warn("Falha ao atualizar análise de {} em {}: {}", signo, data, ex.getMessage());
+                        finalizadas.put(signo, false);
+                    }
+                });
+        return finalizadas;
     }
 
+    /**
+     * Gera/recupera as análises dos 12 signos. As que não estão prontas são geradas em lotes de
+     * {@code ai.batch-size} signos por chamada à IA, com os lotes em paralelo no pool {@code analiseExecutor}.
+     * O resultado mantém a ordem dos signos; falhas vêm no campo {@code erro} do signo correspondente.
+     */
     public List<AnaliseSignoDTO> analisarTodos(LocalDate data) {
         LocalDate dataReferencia = data == null ? LocalDate.now() : data;
         LOGGER.info("Gerando/recuperando análises para todos os signos na data {}", dataReferencia);
-        return SIGNS.stream().map(sign -> analisar(sign, dataReferencia)).toList();
+        Map<String, AnaliseSignoDTO> prontas = new HashMap<>();
+        List<String> pendentes = new ArrayList<>();
+        for (String sign : SIGNS) {
+            analiseCache.buscar(sign, dataReferencia).ifPresentOrElse(dto -> prontas.put(sign, dto), () -> pendentes.add(sign));
+        }
+
+        Map<String, CompletableFuture<SignoAnalise>> geradas = new ConcurrentHashMap<>();
+        int tamanhoLote = Math.max(1, nlpService.getBatchSize());
+        List<CompletableFuture<Void>> lotes = new ArrayList<>();
+        for (int i = 0; i < pendentes.size(); i += tamanhoLote) {
+            List<String> lote = pendentes.subList(i, Math.min(i + tamanhoLote, pendentes.size()));
+            lotes.add(CompletableFuture.runAsync(() -> geradas.putAll(gerarEmLote(lote, dataReferencia, false)), analiseExecutor)
+                    .exceptionally(ex -> {
+                        lote.forEach(sign -> geradas.putIfAbsent(sign, CompletableFuture.failedFuture(ex)));
+                        return null;
+                    }));
+        }
+        lotes.forEach(CompletableFuture::join);
+
+        return SIGNS.stream()
+                .map(sign -> prontas.containsKey(sign)
+                        ? prontas.get(sign)
+                        : geradas.get(sign).thenApply(this::armazenar)
+                        .exceptionally(ex -> falhaAnalise(sign, dataReferencia, ex))
+                        .join())
+                .toList();
+    }
+
+    private AnaliseSignoDTO falhaAnalise(String sign, LocalDate data, Throwable ex) {
+        Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+        LOGGER.warn("Falha ao gerar análise de {} em {}: {}", sign, data, causa.getMessage());
+        return AnaliseSignoDTO.builder()
+                .signo(sign)
+                .dataAnalise(data)
+                .erro("Não foi possível gerar a análise: " + causa.getMessage())
+                .build();
     }
 
     public List<AnaliseComparativaDTO> obterComparativo(String sign, LocalDate data) {
@@ -72,7 +209,7 @@ public class AnaliseSignoService {
         AnaliseSignoDTO analise = analisar(sign, dataReferencia);
         List<Horoscopo> horoscoposDoDia = buscarHoroscoposDoDia(normalize(sign), dataReferencia);
         if (horoscoposDoDia.isEmpty()) {
-            horoscoposDoDia = horoscopoRepository.findTop10BySignoIgnoreCaseOrderByDataColetaDesc(normalize(sign));
+            horoscoposDoDia = horoscopoRepository.findTop10BySignoChaveOrderByDataColetaDesc(Horoscopo.chave(sign));
         }
 
         String resumo = analise.getResumo() == null ? "" : analise.getResumo();
@@ -94,21 +231,124 @@ public class AnaliseSignoService {
         return resposta;
     }
 
-    private SignoAnalise gerarNovaAnalise(String normalized, LocalDate data, SignoAnalise existente) {
-        List<Horoscopo> horoscoposDoDia = buscarHoroscoposDoDia(normalized, data);
-        if (horoscoposDoDia.isEmpty()) {
-            LOGGER.info("Nenhum horóscopo encontrado para {} em {}. Buscando últimos registros.", normalized, data);
-            horoscoposDoDia = horoscopoRepository.findTop10BySignoIgnoreCaseOrderByDataColetaDesc(normalized);
+    /**
+     * Garante uma única geração em andamento por (signo, data): chamadas concorrentes aguardam
+     * a mesma computação e recebem o mesmo resultado.
+     */
+    private SignoAnalise gerarUnica(String normalized, LocalDate data, Predicate<SignoAnalise> reutilizavel) {
+        Reserva reserva = reservar(new ChaveAnalise(normalized, data));
+        CompletableFuture<SignoAnalise> nova = reserva.futuro();
+        if (!reserva.propria()) {
+            LOGGER.info("Análise de {} em {} já está sendo gerada; aguardando resultado.", normalized, data);
+            return aguardar(nova);
         }
+        try {
+            // outra chamada pode ter concluído a geração entre a consulta inicial e a reserva da chave
+            Optional<SignoAnalise> existente = signoAnaliseRepository
+                    .findTopBySignoIgnoreCaseAndDataAnaliseOrderByCriadoEmDesc(normalized, data);
+            SignoAnalise resultado = existente.filter(reutilizavel)
+                    .orElseGet(() -> gerarNovaAnalise(normalized, data, existente.orElse(null)));
+            nova.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error ex) {
+            nova.completeExceptionally(ex);
+            throw ex;
+        }
+    }
 
-        List<String> textos = horoscoposDoDia.stream()
-                .map(Horoscopo::getDescricao)
-                .filter(s -> s != null && !s.isBlank())
-                .toList();
+    /**
+     * Reserva a geração de (signo, data). Se outra chamada já a reservou, devolve o futuro dela; caso contrário
+     * devolve um futuro novo, que o chamador deve completar, e a reserva é liberada assim que ele terminar.
+     */
+    private Reserva reservar(ChaveAnalise chave) {
+        CompletableFuture<SignoAnalise> nova = new CompletableFuture<>();
+        CompletableFuture<SignoAnalise> emAndamento = geracoesEmAndamento.putIfAbsent(chave, nova);
+        if (emAndamento != null) {
+            return new Reserva(emAndamento, false);
+        }
+        nova.whenComplete((analise, ex) -> geracoesEmAndamento.remove(chave, nova));
+        return new Reserva(nova, true);
+    }
+
+    private SignoAnalise aguardar(CompletableFuture<SignoAnalise> emAndamento) {
+        try {
+            return emAndamento.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Equivalente a {@link #gerarUnica} para vários signos: reserva cada (signo, data), reaproveita as análises
+     * existentes que ainda valem e gera as demais com uma única chamada em lote à IA. Signos que já estavam
+     * sendo gerados por outra chamada recebem o futuro dela. Os futuros devolvidos sempre terminam.
+     */
+    private Map<String, CompletableFuture<SignoAnalise>> gerarEmLote(List<String> signos,
+                                                                     LocalDate data,
+                                                                     boolean exigirMesmasEntradas) {
+        Map<String, CompletableFuture<SignoAnalise>> resultados = new LinkedHashMap<>();
+        Map<ChaveAnalise, CompletableFuture<SignoAnalise>> reservados = new LinkedHashMap<>();
+        for (String signo : signos) {
+            ChaveAnalise chave = new ChaveAnalise(signo, data);
+            Reserva reserva = reservar(chave);
+            resultados.put(signo, reserva.futuro());
+            if (reserva.propria()) {
+                reservados.put(chave, reserva.futuro());
+            }
+        }
+        try {
+            Map<String, List<String>> textosPorSigno = new LinkedHashMap<>();
+            Map<String, SignoAnalise> existentes = new HashMap<>();
+            reservados.forEach((chave, nova) -> {
+                Optional<SignoAnalise> existente = signoAnaliseRepository
+                        .findTopBySignoIgnoreCaseAndDataAnaliseOrderByCriadoEmDesc(chave.signo(), data);
+                boolean gerada = existente.isPresent() && existente.get().isGenerated();
+                if (gerada && !exigirMesmasEntradas) {
+                    nova.complete(existente.get());
+                    return;
+                }
+                List<String> textos = carregarTextos(chave.signo(), data);
+                if (gerada && hashEntradas(textos).equals(existente.get().getEntradaHash())) {
+                    nova.complete(existente.get());
+                } else {
+                    existente.ifPresent(e -> existentes.put(chave.signo(), e));
+                    textosPorSigno.put(chave.signo(), textos);
+                }
+            });
+            if (!textosPorSigno.isEmpty()) {
+                LOGGER.info("Enviando textos de {} signos para IA consolidar análises em {}", textosPorSigno.size(), data);
+                Map<String, AiAnalysisResult> analises = nlpService.analyzeBatch(textosPorSigno).join();
+                textosPorSigno.forEach((signo, textos) -> {
+                    CompletableFuture<SignoAnalise> nova = reservados.get(new ChaveAnalise(signo, data));
+                    try {
+                        nova.complete(persistir(signo, data, existentes.get(signo), textos, analises.get(signo)));
+                    } catch (RuntimeException ex) {
+                        nova.completeExceptionally(ex);
+                    }
+                });
+            }
+        } catch (RuntimeException | Error ex) {
+            reservados.values().forEach(nova -> nova.completeExceptionally(ex));
+        }
+        return resultados;
+    }
+
+    private SignoAnalise gerarNovaAnalise(String normalized, LocalDate data, SignoAnalise existente) {
+        List<String> textos = carregarTextos(normalized, data);
 
         LOGGER.info("Enviando {} textos para IA consolidar análise de {} em {}", textos.size(), normalized, data);
         AiAnalysisResult resultado = nlpService.analyze(normalized, textos);
+        return persistir(normalized, data, existente, textos, resultado);
+    }
 
+    private SignoAnalise persistir(String normalized,
+                                   LocalDate data,
+                                   SignoAnalise existente,
+                                   List<String> textos,
+                                   AiAnalysisResult resultado) {
         String resumo = resultado.summary() == null ? "" : resultado.summary();
         String sentimento = resultado.sentiment() == null ? "Indefinido" : resultado.sentiment();
         double coerencia = resultado.coherenceScore();
@@ -125,23 +365,71 @@ public class AnaliseSignoService {
         entidade.setCoerencia(coerencia);
         entidade.setDestaques(new ArrayList<>(destaques));
         entidade.setGenerated(generated);
+        entidade.setEntradaHash(hashEntradas(textos));
         if (entidade.getCriadoEm() == null) {
             entidade.setCriadoEm(LocalDateTime.now());
         }
 
-        SignoAnalise salvo = signoAnaliseRepository.save(entidade);
+        SignoAnalise salvo;
+        try {
+            salvo = signoAnaliseRepository.save(entidade);
+        } catch (DataIntegrityViolationException ex) {
+            // outra instância gravou a análise do dia primeiro; reaproveita o registro dela
+            LOGGER.info("Análise de {} para {} já gravada por outra execução; reutilizando.", normalized, data);
+            return signoAnaliseRepository.findTopBySignoIgnoreCaseAndDataAnaliseOrderByCriadoEmDesc(normalized, data)
+                    .orElseThrow(() -> ex);
+        }
+        analiseCache.invalidar(normalized, data);
         LOGGER.info("Análise de {} para {} salva com sucesso", normalized, data);
         return salvo;
     }
 
+    private List<String> carregarTextos(String normalized, LocalDate data) {
+        List<Horoscopo> horoscoposDoDia = buscarHoroscoposDoDia(normalized, data);
+        if (horoscoposDoDia.isEmpty()) {
+            LOGGER.info("Nenhum horóscopo encontrado para {} em {}. Buscando últimos registros.", normalized, data);
+            horoscoposDoDia = horoscopoRepository.findTop10BySignoChaveOrderByDataColetaDesc(Horoscopo.chave(normalized));
+        }
+        return horoscoposDoDia.stream()
+                .map(Horoscopo::getDescricao)
+                .filter(s -> s != null && !s.isBlank())
+                .toList();
+    }
+
+    private static String hashEntradas(List<String> textos) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String texto : textos) {
+                digest.update(texto.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
     private List<Horoscopo> buscarHoroscoposDoDia(String sign, LocalDate data) {
         LocalDateTime inicio = data.atStartOfDay();
         LocalDateTime fim = data.plusDays(1).atStartOfDay();
-        return horoscopoRepository.findBySignoIgnoreCaseAndDataColetaBetween(sign, inicio, fim);
+        return horoscopoRepository.findBySignoChaveAndDataColetaBetween(Horoscopo.chave(sign), inicio, fim);
+    }
+
+    /**
+     * Converte para DTO e, se a análise já estiver finalizada, guarda no cache.
+     */
+    private AnaliseSignoDTO armazenar(SignoAnalise analise) {
+        AnaliseSignoDTO dto = toDto(analise);
+        if (analise.isGenerated()) {
+            analiseCache.guardar(analise.getSigno(), analise.getDataAnalise(), dto);
+        }
+        return dto;
     }
 
     private AnaliseSignoDTO toDto(SignoAnalise analise) {
-        List<String> destaques = analise.getDestaques() == null ? Collections.emptyList() : analise.getDestaques();
+        List<String> destaques = analise.getDestaques() == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(analise.getDestaques()));
         return AnaliseSignoDTO.builder()
                 .signo(analise.getSigno())
                 .dataAnalise(analise.getDataAnalise())
@@ -155,4 +443,10 @@ public class AnaliseSignoService {
     private String normalize(String sign) {
         return sign == null ? "" : sign.trim().toLowerCase(Locale.ROOT);
     }
+
+    private record ChaveAnalise(String signo, LocalDate data) {
+    }
+
+    private record Reserva(CompletableFuture<SignoAnalise> futuro, boolean propria) {
+    }
 }
@@ -25,7 +25,7 @@ public class HoroscopoService {
     public List<HoroscopoDTO> findBySign(String sign, LocalDate date) {
         LocalDate targetDate = date == null ? LocalDate.now() : date;
         LOGGER.info("Buscando horóscopos para o signo {} na data {}", sign, targetDate);
-        List<Horoscopo> list = repository.findBySignoIgnoreCaseAndDataColetaBetween(sign,
+        List<Horoscopo> list = repository.findBySignoChaveAndDataColetaBetween(Horoscopo.chave(sign),
                 targetDate.atStartOfDay(), targetDate.plusDays(1).atStartOfDay());
         return list.stream().map(this::toDto).collect(Collectors.toList());
     }
@@ -40,7 +40,7 @@ public class HoroscopoService {
 
     public List<Horoscopo> findEntitiesBySignAndDate(String sign, LocalDate date) {
         LocalDate targetDate = date == null ? LocalDate.now() : date;
-        return repository.findBySignoIgnoreCaseAndDataColetaBetween(sign,
+        return repository.findBySignoChaveAndDataColetaBetween(Horoscopo.chave(sign),
                 targetDate.atStartOfDay(), targetDate.plusDays(1).atStartOfDay());
     }
 
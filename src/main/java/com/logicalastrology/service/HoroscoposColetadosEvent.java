@@ -0,0 +1,14 @@
+package com.logicalastrology.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Publicado ao fim de cada scraping, com os signos que possuem horóscopos gravados na data.
+ */
+public record HoroscoposColetadosEvent(LocalDate data, List<String> signos) {
+
+    public HoroscoposColetadosEvent {
+        signos = List.copyOf(signos);
+    }
+}
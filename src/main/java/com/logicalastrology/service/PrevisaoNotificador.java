@@ -0,0 +1,55 @@
+package com.logicalastrology.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Avisa, em memória, quem está acompanhando uma previsão temática que o estado dela mudou
+ * (preferência vinculada, pagamento confirmado, mensagem gerada ou expiração).
+ * Os avisos só dizem "mudou"; cada ouvinte relê o status quando quiser.
+ */
+@Slf4j
+@Component
+public class PrevisaoNotificador {
+
+    private final Map<UUID, Set<Runnable>> ouvintes = new ConcurrentHashMap<>();
+
+    /**
+     * Registra o ouvinte e devolve a ação que cancela o registro.
+     */
+    public Runnable inscrever(UUID predictionId, Runnable ouvinte) {
+        ouvintes.computeIfAbsent(predictionId, id -> new CopyOnWriteArraySet<>()).add(ouvinte);
+        return () -> ouvintes.computeIfPresent(predictionId, (id, atuais) -> {
+            atuais.remove(ouvinte);
+            return atuais.isEmpty() ? null : atuais;
+        });
+    }
+
+    public void notificar(UUID predictionId) {
+        Set<Runnable> atuais = ouvintes.get(predictionId);
+        if (atuais != null) {
+            atuais.forEach(this::avisar);
+        }
+    }
+
+    /**
+     * Previsões com algum ouvinte registrado neste momento.
+     */
+    public Set<UUID> acompanhadas() {
+        return Set.copyOf(ouvintes.keySet());
+    }
+
+    private void avisar(Runnable ouvinte) {
+        try {
+            ouvinte.run();
+        } catch (RuntimeException ex) {
+            log.debug("Falha ao avisar ouvinte da previsão: {}", ex.getMessage());
+        }
+    }
+}
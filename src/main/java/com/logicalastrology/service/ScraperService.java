@@ -1,136 +1,306 @@
 package com.logicalastrology.service;
 
+import com.logicalastrology.config.ScraperProperties;
+import com.logicalastrology.model.DataFreshness;
 import com.logicalastrology.model.Horoscopo;
 import com.logicalastrology.repository.HoroscopoRepository;
+import com.logicalastrology.scraper.HoroscopeSource;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class ScraperService {
 
     private static final String USER_AGENT = "Mozilla/5.0";
-    private static final String JOAO_BIDU_TEMPLATE =
-            "https://joaobidu.com.br/horoscopo-do-dia/horoscopo-do-dia-para-%s/";
-    private static final String HOROSCOPO_VIRTUAL_TEMPLATE =
-            "https://www.horoscopovirtual.com.br/horoscopo/%s";
-    private static final String PERSONARE_TEMPLATE =
-            "https://www.personare.com.br/horoscopo-do-dia/%s";
-
-    private static final List<SignoConfig> SIGNOS = List.of(
-            new SignoConfig("aries"),
-            new SignoConfig("touro"),
-            new SignoConfig("gemeos"),
-            new SignoConfig("cancer"),
-            new SignoConfig("leao"),
-            new SignoConfig("virgem"),
-            new SignoConfig("libra"),
-            new SignoConfig("escorpiao"),
-            new SignoConfig("sagitario"),
-            new SignoConfig("capricornio"),
-            new SignoConfig("aquario"),
-            new SignoConfig("peixes")
-    );
+    private static final int MAX_JOBS_HISTORICO = 20;
+
+    private static final List<String> SIGNOS = List.of(
+            "aries", "touro", "gemeos", "cancer", "leao", "virgem", "libra", "escorpiao",
+            "sagitario", "capricornio", "aquario", "peixes");
 
     private final HoroscopoRepository horoscopoRepository;
+    private final List<HoroscopeSource> fontes;
+    private final ScraperProperties properties;
+    private final Executor scraperExecutor;
+    private final Executor scrapingJobExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, ScrapingJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ScrapingJob> eldest) {
+            return size() > MAX_JOBS_HISTORICO;
+        }
+    };
+    private volatile ScrapingJob jobAtual;
+    private volatile LocalDate dataCompleta;
+    private volatile LocalDateTime ultimaColeta;
+    private final Map<String, Semaphore> permissoesPorFonte = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> proximaRequisicaoPorFonte = new ConcurrentHashMap<>();
+    private final Set<String> coletasEmAndamento = ConcurrentHashMap.newKeySet();
 
-    public ScraperService(HoroscopoRepository horoscopoRepository) {
+    public ScraperService(HoroscopoRepository horoscopoRepository,
+                          List<HoroscopeSource> fontes,
+                          ScraperProperties properties,
+                          @Qualifier("scraperExecutor") Executor scraperExecutor,
+                          @Qualifier("scrapingJobExecutor") Executor scrapingJobExecutor,
+                          ApplicationEventPublisher eventPublisher) {
         this.horoscopoRepository = horoscopoRepository;
+        this.fontes = List.copyOf(fontes);
+        this.properties = properties;
+        this.scraperExecutor = scraperExecutor;
+        this.scrapingJobExecutor = scrapingJobExecutor;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Roda automaticamente 1x por dia (pode também ser executado manualmente via endpoint).
+     * Inicia uma execução de scraping em segundo plano. Se já houver uma em andamento,
+     * devolve essa mesma execução em vez de disparar outra.
      */
-    @Scheduled(cron = "0 0 8 * * *")
-    public void executarScraping() {
-        List<Horoscopo> resultados = new ArrayList<>();
+    public synchronized ScrapingJob iniciarJob() {
+        if (jobAtual != null && jobAtual.isRunning()) {
+            log.info("Scraping {} já está em andamento; reaproveitando execução.", jobAtual.getId());
+            return jobAtual;
+        }
+        ScrapingJob job = new ScrapingJob(SIGNOS, fontes.stream().map(HoroscopeSource::name).toList());
+        jobAtual = job;
+        jobs.put(job.getId(), job);
+        try {
+            scrapingJobExecutor.execute(() -> executar(job));
+        } catch (RuntimeException ex) {
+            job.falhar();
+            throw ex;
+        }
+        return job;
+    }
+
+    public synchronized Optional<ScrapingJob> buscarJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
 
-        for (SignoConfig signo : SIGNOS) {
-            resultados.addAll(coletarPorSigno(signo));
+    private void executar(ScrapingJob job) {
+        try {
+            job.concluir(executarScraping(job));
+        } catch (RuntimeException ex) {
+            log.warn("Falha no scraping {}: {}", job.getId(), ex.getMessage());
+            job.falhar();
         }
+    }
 
-        if (!resultados.isEmpty()) {
-            horoscopoRepository.saveAll(resultados);
-            log.info("✅ {} horóscopos salvos para {} signos", resultados.size(), SIGNOS.size());
-        } else {
-            log.warn("⚠️ Nenhum horóscopo coletado.");
+    public DataFreshness getFreshness() {
+        if (LocalDate.now().equals(dataCompleta)) {
+            return DataFreshness.WARM;
         }
+        ScrapingJob job = jobAtual;
+        return job != null && job.isRunning() ? DataFreshness.WARMING : DataFreshness.STALE;
     }
 
-    private List<Horoscopo> coletarPorSigno(SignoConfig signo) {
-        List<Horoscopo> coletados = new ArrayList<>();
-        scrapeJoaoBidu(signo).ifPresent(coletados::add);
-        scrapeHoroscopoVirtual(signo).ifPresent(coletados::add);
-        scrapePersonare(signo).ifPresent(coletados::add);
-        return coletados;
+    public LocalDateTime getUltimaColeta() {
+        return ultimaColeta;
     }
 
-    private Optional<Horoscopo> scrapeJoaoBidu(SignoConfig signo) {
-        if (jaExisteHoje(signo.nome(), "João Bidu")) {
-            log.info("Horóscopo de {} para {} já existe na data vigente; ignorando scraping.", signo.nome(), "João Bidu");
-            return Optional.empty();
+    /**
+     * Indica se todas as fontes registradas já foram coletadas para todos os signos na data vigente.
+     */
+    public boolean possuiDadosDoDia() {
+        return registrarCompletude(carregarColetadosHoje());
+    }
+
+    private boolean registrarCompletude(Set<String> coletadosHoje) {
+        boolean completo = SIGNOS.stream()
+                .allMatch(signo -> fontes.stream().allMatch(f -> coletadosHoje.contains(chave(signo, f.name()))));
+        if (completo) {
+            dataCompleta = LocalDate.now();
         }
-        String url = String.format(JOAO_BIDU_TEMPLATE, signo.joaoBiduSlug());
+        return completo;
+    }
+
+    /**
+     * Coleta todas as fontes registradas para todos os signos e devolve quantos horóscopos foram salvos.
+     * Todas as páginas são buscadas em paralelo, limitadas por fonte e com prazo por requisição.
+     * Pares (signo, fonte) já gravados hoje ou sendo coletados por outra execução são ignorados.
+     */
+    private int executarScraping(ScrapingJob job) {
+        Set<String> coletadosHoje = carregarColetadosHoje();
+        List<String> reservados = new ArrayList<>();
+        List<CompletableFuture<Optional<Horoscopo>>> tarefas = new ArrayList<>();
         try {
-            Document doc = Jsoup.connect(url).userAgent(USER_AGENT).get();
-            String texto = doc.select(".MsoNormal").text();
-            if (texto.isBlank()) {
-                texto = doc.select("article p").text();
+            for (String signo : SIGNOS) {
+                for (HoroscopeSource fonte : fontes) {
+                    String chave = chave(signo, fonte.name());
+                    if (coletadosHoje.contains(chave)) {
+                        log.info("Horóscopo de {} para {} já existe na data vigente; ignorando scraping.", signo, fonte.name());
+                        job.registrarIgnorado(signo, fonte.name());
+                    } else if (!coletasEmAndamento.add(chave)) {
+                        log.info("Horóscopo de {} para {} já está sendo coletado por outra execução.", signo, fonte.name());
+                        job.registrarIgnorado(signo, fonte.name());
+                    } else {
+                        reservados.add(chave);
+                        tarefas.add(agendar(fonte, signo)
+                                .whenComplete((r, ex) -> job.registrarColeta(signo, fonte.name(), r != null && r.isPresent())));
+                    }
+                }
             }
-            return buildHoroscopo(signo.nome(), "João Bidu", texto);
-        } catch (Exception e) {
-            log.warn("Falha ao coletar João Bidu para {}: {}", signo.nome(), e.getMessage());
-            return Optional.empty();
+
+            List<Horoscopo> resultados = tarefas.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(Optional::stream)
+                    .toList();
+
+            if (!resultados.isEmpty()) {
+                horoscopoRepository.saveAll(resultados);
+                ultimaColeta = LocalDateTime.now();
+                log.info("✅ {} horóscopos salvos para {} signos", resultados.size(), SIGNOS.size());
+            } else if (tarefas.isEmpty()) {
+                log.info("Todos os horóscopos do dia já foram coletados.");
+            } else {
+                log.warn("⚠️ Nenhum horóscopo coletado.");
+            }
+            Set<String> coletadosAgora = carregarColetadosHoje();
+            registrarCompletude(coletadosAgora);
+            List<String> signosComDados = SIGNOS.stream()
+                    .filter(signo -> fontes.stream().anyMatch(f -> coletadosAgora.contains(chave(signo, f.name()))))
+                    .toList();
+            if (!signosComDados.isEmpty()) {
+                eventPublisher.publishEvent(new HoroscoposColetadosEvent(LocalDate.now(), signosComDados));
+            }
+            return resultados.size();
+        } finally {
+            // só libera depois do saveAll, para que outra execução já enxergue os registros gravados
+            reservados.forEach(coletasEmAndamento::remove);
         }
     }
 
-    private Optional<Horoscopo> scrapeHoroscopoVirtual(SignoConfig signo) {
-        if (jaExisteHoje(signo.nome(), "Horoscopo Virtual")) {
-            log.info("Horóscopo de {} para {} já existe na data vigente; ignorando scraping.", signo.nome(), "Horoscopo Virtual");
+    /**
+     * Carrega numa única consulta os pares (signo, fonte) já coletados na data vigente.
+     */
+    private Set<String> carregarColetadosHoje() {
+        LocalDateTime inicio = LocalDate.now().atStartOfDay();
+        LocalDateTime fim = LocalDate.now().plusDays(1).atStartOfDay();
+        return horoscopoRepository.findSignoFonteColetados(inicio, fim).stream()
+                .map(sf -> chave(sf.getSigno(), sf.getFonte()))
+                .collect(Collectors.toSet());
+    }
+
+    private static String chave(String signo, String fonte) {
+        return Horoscopo.chave(signo) + "|" + Horoscopo.chave(fonte);
+    }
+
+    private CompletableFuture<Optional<Horoscopo>> agendar(HoroscopeSource fonte, String signo) {
+        long prazo = properties.getDeadline().toMillis();
+        return CompletableFuture.supplyAsync(() -> comPermissao(fonte, signo), scraperExecutor)
+                .orTimeout(prazo, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    if (ex instanceof TimeoutException) {
+                        log.warn("Prazo de {} ms excedido ao coletar {} para {}", prazo, fonte.name(), signo);
+                    } else {
+                        log.warn("Falha inesperada ao coletar {} para {}: {}", fonte.name(), signo, ex.getMessage());
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    private Optional<Horoscopo> comPermissao(HoroscopeSource fonte, String signo) {
+        Semaphore permissoes = permissoesPorFonte.computeIfAbsent(fonte.name(),
+                nome -> new Semaphore(limiteConcorrencia(fonte)));
+        long limite = System.nanoTime() + properties.getDeadline().toNanos();
+        try {
+            if (!aguardarIntervalo(fonte, limite)) {
+                log.warn("Limite de taxa de {} não deixa coletar {} dentro do prazo", fonte.name(), signo);
+                return Optional.empty();
+            }
+            if (!permissoes.tryAcquire(limite - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                log.warn("Sem vaga para coletar {} para {} dentro do prazo", fonte.name(), signo);
+                return Optional.empty();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return Optional.empty();
         }
-        String url = String.format(HOROSCOPO_VIRTUAL_TEMPLATE, signo.horoscopoVirtualSlug());
         try {
-            Document doc = Jsoup.connect(url).userAgent(USER_AGENT).get();
-            String texto = doc.select(".text-wrapper p").text();
+            return coletar(fonte, signo);
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    private Optional<Horoscopo> coletar(HoroscopeSource fonte, String signo) {
+        String url = fonte.url(signo);
+        try {
+            Document doc = Jsoup.connect(url)
+                    .userAgent(USER_AGENT)
+                    .timeout((int) timeout(fonte).toMillis())
+                    .get();
+            String texto = doc.select(fonte.selector()).text();
             if (texto.isBlank()) {
-                texto = doc.select(".text-wrapper").text();
+                texto = doc.select(fonte.fallbackSelector()).text();
             }
-            return buildHoroscopo(signo.nome(), "Horoscopo Virtual", texto);
+            return buildHoroscopo(signo, fonte.name(), texto);
         } catch (Exception e) {
-            log.warn("Falha ao coletar Horoscopo Virtual para {}: {}", signo.nome(), e.getMessage());
+            log.warn("Falha ao coletar {} para {}: {}", fonte.name(), signo, e.getMessage());
             return Optional.empty();
         }
     }
 
-    private Optional<Horoscopo> scrapePersonare(SignoConfig signo) {
-        if (jaExisteHoje(signo.nome(), "Personare")) {
-            log.info("Horóscopo de {} para {} já existe na data vigente; ignorando scraping.", signo.nome(), "Personare");
-            return Optional.empty();
+    /**
+     * Reserva o próximo horário livre da fonte, respeitando o intervalo mínimo entre requisições, e espera
+     * até ele. Devolve {@code false} se o horário reservado passar do prazo da coleta.
+     */
+    private boolean aguardarIntervalo(HoroscopeSource fonte, long limite) throws InterruptedException {
+        long intervalo = intervaloMinimo(fonte).toNanos();
+        if (intervalo <= 0) {
+            return true;
         }
-        String url = String.format(PERSONARE_TEMPLATE, signo.personareSlug());
-        try {
-            Document doc = Jsoup.connect(url).userAgent(USER_AGENT).get();
-            String texto = doc.select("div.sc-6d2a5120-5.fgTbnr p").text();
-            if (texto.isBlank()) {
-                texto = doc.select("div.sc-6d2a5120-5.fgTbnr").text();
+        AtomicLong proxima = proximaRequisicaoPorFonte.computeIfAbsent(fonte.name(),
+                nome -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long agora = System.nanoTime();
+            long anterior = proxima.get();
+            long inicio = anterior - agora > 0 ? anterior : agora;
+            if (inicio - limite > 0) {
+                return false;
+            }
+            if (proxima.compareAndSet(anterior, inicio + intervalo)) {
+                TimeUnit.NANOSECONDS.sleep(inicio - agora);
+                return true;
             }
-            return buildHoroscopo(signo.nome(), "Personare", texto);
-        } catch (Exception e) {
-            log.warn("Falha ao coletar Personare para {}: {}", signo.nome(), e.getMessage());
-            return Optional.empty();
         }
     }
 
+    private Duration intervaloMinimo(HoroscopeSource fonte) {
+        return fonte.minInterval() != null ? fonte.minInterval() : properties.getMinIntervalPerSource();
+    }
+
+    private int limiteConcorrencia(HoroscopeSource fonte) {
+        int limite = fonte.maxConcurrency() > 0 ? fonte.maxConcurrency() : properties.getMaxConcurrentPerSource();
+        return Math.max(1, limite);
+    }
+
+    private Duration timeout(HoroscopeSource fonte) {
+        return fonte.timeout() != null ? fonte.timeout() : properties.getRequestTimeout();
+    }
+
     private Optional<Horoscopo> buildHoroscopo(String signo, String fonte, String descricao) {
         if (descricao == null || descricao.isBlank()) {
             return Optional.empty();
@@ -142,16 +312,4 @@ public class ScraperService {
                 .dataColeta(LocalDateTime.now())
                 .build());
     }
-
-    private boolean jaExisteHoje(String signo, String fonte) {
-        LocalDateTime inicio = LocalDate.now().atStartOfDay();
-        LocalDateTime fim = LocalDate.now().plusDays(1).atStartOfDay();
-        return horoscopoRepository.existsBySignoIgnoreCaseAndFonteIgnoreCaseAndDataColetaBetween(signo, fonte, inicio, fim);
-    }
-
-    private record SignoConfig(String nome, String joaoBiduSlug, String horoscopoVirtualSlug, String personareSlug) {
-        private SignoConfig(String nome) {
-            this(nome, nome, nome, nome);
-        }
-    }
 }
@@ -0,0 +1,114 @@
+package com.logicalastrology.service;
+
+import com.logicalastrology.dto.ProgressoScrapingDTO;
+import com.logicalastrology.dto.ScrapingJobDTO;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Execução de scraping acompanhada pelo endpoint {@code /api/scrapper/jobs/{id}}.
+ * O progresso é contabilizado por fonte e por signo à medida que cada página termina.
+ */
+public class ScrapingJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime iniciadoEm = LocalDateTime.now();
+    private final Map<String, Progresso> porFonte = new LinkedHashMap<>();
+    private final Map<String, Progresso> porSigno = new LinkedHashMap<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime concluidoEm;
+    private volatile int salvos;
+
+    ScrapingJob(List<String> signos, List<String> fontes) {
+        signos.forEach(signo -> porSigno.put(signo, new Progresso(fontes.size())));
+        fontes.forEach(fonte -> porFonte.put(fonte, new Progresso(signos.size())));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    void registrarColeta(String signo, String fonte, boolean coletado) {
+        Progresso doSigno = porSigno.get(signo);
+        Progresso daFonte = porFonte.get(fonte);
+        (coletado ? doSigno.coletados : doSigno.falhas).incrementAndGet();
+        (coletado ? daFonte.coletados : daFonte.falhas).incrementAndGet();
+    }
+
+    void registrarIgnorado(String signo, String fonte) {
+        porSigno.get(signo).ignorados.incrementAndGet();
+        porFonte.get(fonte).ignorados.incrementAndGet();
+    }
+
+    void concluir(int salvos) {
+        this.salvos = salvos;
+        this.concluidoEm = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void falhar() {
+        this.concluidoEm = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    public ScrapingJobDTO toDto() {
+        return ScrapingJobDTO.builder()
+                .id(id)
+                .status(status.name())
+                .iniciadoEm(iniciadoEm)
+                .concluidoEm(concluidoEm)
+                .salvos(salvos)
+                .porFonte(toDto(porFonte))
+                .porSigno(toDto(porSigno))
+                .build();
+    }
+
+    private static Map<String, ProgressoScrapingDTO> toDto(Map<String, Progresso> progresso) {
+        Map<String, ProgressoScrapingDTO> dto = new LinkedHashMap<>();
+        progresso.forEach((chave, p) -> dto.put(chave, p.toDto()));
+        return dto;
+    }
+
+    private static final class Progresso {
+        private final int total;
+        private final AtomicInteger coletados = new AtomicInteger();
+        private final AtomicInteger falhas = new AtomicInteger();
+        private final AtomicInteger ignorados = new AtomicInteger();
+
+        private Progresso(int total) {
+            this.total = total;
+        }
+
+        private ProgressoScrapingDTO toDto() {
+            int c = coletados.get();
+            int f = falhas.get();
+            int i = ignorados.get();
+            return ProgressoScrapingDTO.builder()
+                    .total(total)
+                    .coletados(c)
+                    .falhas(f)
+                    .ignorados(i)
+                    .pendentes(Math.max(0, total - c - f - i))
+                    .build();
+        }
+    }
+}
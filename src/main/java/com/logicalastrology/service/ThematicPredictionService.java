@@ -8,25 +8,32 @@ import com.logicalastrology.model.PredictionStatus;
 import com.logicalastrology.model.PredictionTheme;
 import com.logicalastrology.model.ThemedPrediction;
 import com.logicalastrology.payment.MercadoPagoClient;
+import com.logicalastrology.payment.PreferencePool;
 import com.logicalastrology.repository.ThemedPredictionRepository;
 import com.logicalastrology.nlp.NlpService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.math.RoundingMode;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ThematicPredictionService {
 
     @Value("${mercadopago.default-payment-value}")
@@ -36,11 +43,45 @@ public class ThematicPredictionService {
     private static final BigDecimal DESCONTO = new BigDecimal("0.30");
     private static final Duration VALIDADE_TOKEN = Duration.ofMinutes(30);
 
+    /**
+     * Status informado enquanto o pagamento já foi confirmado e a mensagem ainda está sendo gerada.
+     */
+    public static final String STATUS_GERANDO = "GENERATING";
+    private static final Duration RECUPERACAO_APOS = Duration.ofMinutes(2);
+
     private final ThemedPredictionRepository repository;
     private final MercadoPagoClient mercadoPagoClient;
     private final NlpService nlpService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor previsaoExecutor;
+    private final PreferencePool preferencePool;
+    private final PrevisaoNotificador notificador;
+    private final boolean preferenciasAssincronas;
+    private final Set<UUID> mensagensEmGeracao = ConcurrentHashMap.newKeySet();
+
+    public ThematicPredictionService(ThemedPredictionRepository repository,
+                                     MercadoPagoClient mercadoPagoClient,
+                                     NlpService nlpService,
+                                     TransactionTemplate transactionTemplate,
+                                     @Qualifier("previsaoExecutor") Executor previsaoExecutor,
+                                     PreferencePool preferencePool,
+                                     PrevisaoNotificador notificador,
+                                     @Value("${mercadopago.async-preferences:false}") boolean preferenciasAssincronas) {
+        this.repository = repository;
+        this.mercadoPagoClient = mercadoPagoClient;
+        this.nlpService = nlpService;
+        this.transactionTemplate = transactionTemplate;
+        this.previsaoExecutor = previsaoExecutor;
+        this.preferencePool = preferencePool;
+        this.notificador = notificador;
+        this.preferenciasAssincronas = preferenciasAssincronas;
+    }
 
-    @Transactional
+    /**
+     * Cria a previsão pendente de pagamento. Com {@code mercadopago.async-preferences} (desligado por padrão)
+     * a linha é gravada antes de existir preferência: ela vem pronta do {@link PreferencePool} ou é vinculada
+     * quando o Mercado Pago responder, e o cliente recebe o {@code initPoint} pelo endpoint de status.
+     */
     public ThematicPredictionResponse criarPrevisao(ThematicPredictionRequest request) {
         PredictionTheme tema = PredictionTheme.fromString(request.getTema());
         PredictionSentiment sentimento = PredictionSentiment.fromString(request.getSentimento());
@@ -97,22 +138,63 @@ public class ThematicPredictionService {
         prediction.setValorFinal(valorFinal);
         prediction.setExpiresAt(expiraEm);
 
-        MercadoPagoClient.PreferenceResponse preference = mercadoPagoClient.criarPreferencia(
-                "Previsão " + tema.name().toLowerCase(),
-                valorFinal,
-                expiraEm
-        );
+        String titulo = tituloPreferencia(tema);
+        if (preferenciasAssincronas) {
+            return criarComPreferenciaAssincrona(prediction, titulo);
+        }
+
+        MercadoPagoClient.PreferenceResponse preference = mercadoPagoClient.criarPreferencia(titulo, valorFinal, expiraEm);
 
         if (preference == null || !StringUtils.hasText(preference.getId())) {
             throw new IllegalStateException("Não foi possível criar a preferência de pagamento");
         }
 
+        aplicarPreferencia(prediction, preference);
+
+        return toResponse(repository.save(prediction));
+    }
+
+    private ThematicPredictionResponse criarComPreferenciaAssincrona(ThemedPrediction prediction, String titulo) {
+        CompletableFuture<MercadoPagoClient.PreferenceResponse> preferencia =
+                preferencePool.obter(titulo, prediction.getValorFinal(), prediction.getExpiresAt());
+        MercadoPagoClient.PreferenceResponse pronta = preferencia.getNow(null);
+        if (pronta != null) {
+            aplicarPreferencia(prediction, pronta);
+        }
+
+        ThemedPrediction saved = repository.save(prediction);
+        if (pronta == null) {
+            preferencia.whenComplete((preference, ex) -> {
+                transactionTemplate.executeWithoutResult(
+                        status -> vincularPreferencia(saved.getId(), ex == null ? preference : null));
+                notificador.notificar(saved.getId());
+            });
+        }
+        return toResponse(saved);
+    }
+
+    private void vincularPreferencia(UUID predictionId, MercadoPagoClient.PreferenceResponse preference) {
+        repository.findById(predictionId)
+                .filter(p -> p.getPreferenceId() == null && p.getStatus() == PredictionStatus.PENDING_PAYMENT)
+                .ifPresent(prediction -> {
+                    if (preference == null || !StringUtils.hasText(preference.getId())) {
+                        // sem preferência não há como pagar; expira para o cliente poder pedir outra
+                        prediction.setStatus(PredictionStatus.EXPIRED);
+                        log.warn("Não foi possível criar a preferência de pagamento da previsão {}", predictionId);
+                        return;
+                    }
+                    aplicarPreferencia(prediction, preference);
+                    log.info("Preferência {} vinculada à previsão {}", preference.getId(), predictionId);
+                });
+    }
+
+    private static void aplicarPreferencia(ThemedPrediction prediction, MercadoPagoClient.PreferenceResponse preference) {
         prediction.setPreferenceId(preference.getId());
         prediction.setInitPoint(preference.getInitPoint());
         prediction.setSandboxInitPoint(preference.getSandboxInitPoint());
+    }
 
-        ThemedPrediction saved = repository.save(prediction);
-
+    private ThematicPredictionResponse toResponse(ThemedPrediction saved) {
         return ThematicPredictionResponse.builder()
                 .preferenceId(saved.getPreferenceId())
                 .predictionId(Optional.ofNullable(saved.getId()).map(UUID::toString).orElse(null))
@@ -123,11 +205,19 @@ public class ThematicPredictionService {
                 .valorBase(saved.getValorBase())
                 .valorFinal(saved.getValorFinal())
                 .status(saved.getStatus().name())
-                .publicKey(preference.getPublicKey())
+                .publicKey(PUBLIC_KEY)
                 .build();
     }
 
-    @Transactional
+    private static String tituloPreferencia(PredictionTheme tema) {
+        return "Previsão " + tema.name().toLowerCase();
+    }
+
+    /**
+     * Consulta somente leitura: uma previsão pendente vencida é informada como expirada, mas quem grava
+     * o novo status é {@link #expirarVencidas()}.
+     */
+    @Transactional(readOnly = true)
     public ThematicPredictionStatusDTO buscarStatusPorPredictionId(String predictionId) {
         UUID id;
         try {
@@ -136,54 +226,133 @@ public class ThematicPredictionService {
             throw new IllegalArgumentException("ID de previsão inválido");
         }
 
-        ThemedPrediction prediction = repository.findById(id)
+        ThemedPredictionRepository.StatusPrevisao prediction = repository.findStatusById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Previsão não encontrada"));
 
-        if (prediction.getStatus() != PredictionStatus.PAID &&
+        LocalDateTime agora = LocalDateTime.now();
+        PredictionStatus status = prediction.getStatus();
+        if (status == PredictionStatus.PENDING_PAYMENT &&
                 prediction.getExpiresAt() != null &&
-                prediction.getExpiresAt().isBefore(LocalDateTime.now())) {
-
-            prediction.setStatus(PredictionStatus.EXPIRED);
+                prediction.getExpiresAt().isBefore(agora)) {
+            status = PredictionStatus.EXPIRED;
         }
 
+        boolean pago = status == PredictionStatus.PAID;
         return ThematicPredictionStatusDTO.builder()
                 .preferenceId(prediction.getPreferenceId())
-                .status(prediction.getStatus().name())
+                .status(pago && prediction.getMensagemIa() == null ? STATUS_GERANDO : status.name())
                 .expiresAt(prediction.getExpiresAt())
                 .tema(prediction.getTema().name())
-                .mensagem(prediction.getStatus() == PredictionStatus.PAID ? prediction.getMensagemIa() : null)
-                .ativo(prediction.getStatus() == PredictionStatus.PAID &&
+                .initPoint(prediction.getInitPoint())
+                .mensagem(pago ? prediction.getMensagemIa() : null)
+                .ativo(pago &&
                         prediction.getExpiresAt() != null &&
-                        prediction.getExpiresAt().isAfter(LocalDateTime.now()))
+                        prediction.getExpiresAt().isAfter(agora))
                 .build();
     }
 
-    @Transactional
-    public void registrarNotificacaoPagamento(String paymentId) {
-        mercadoPagoClient.extrairPreferenceIdDePagamento(paymentId)
-                .flatMap(repository::findByPreferenceId)
-                .ifPresent(prediction -> {
-                    if (prediction.getStatus() == PredictionStatus.PAID) {
-                        log.info("Pagamento já processado para preferenceId {}", prediction.getPreferenceId());
-                        return;
-                    }
-                    if (prediction.getExpiresAt() != null && prediction.getExpiresAt().isBefore(LocalDateTime.now())) {
-                        prediction.setStatus(PredictionStatus.EXPIRED);
-                        log.info("Pagamento recebido após expiração para preferenceId {}", prediction.getPreferenceId());
-                        return;
-                    }
-                    confirmarPagamento(prediction);
-                    log.info("Pagamento confirmado para preferenceId {}", prediction.getPreferenceId());
+    /**
+     * Marca como expiradas, numa única atualização, as previsões pendentes cujo prazo já passou, e avisa só
+     * quem acompanha alguma delas. A consulta dos ids fica limitada às previsões acompanhadas.
+     */
+    @Scheduled(fixedDelayString = "${previsao.expiracao.intervalo:PT1M}")
+    public void expirarVencidas() {
+        LocalDateTime agora = LocalDateTime.now();
+        Set<UUID> acompanhadas = notificador.acompanhadas();
+        List<UUID> avisar = acompanhadas.isEmpty()
+                ? List.of()
+                : repository.findIdsVencidas(acompanhadas, PredictionStatus.PENDING_PAYMENT, agora);
+        int expiradas = repository.expirarVencidas(PredictionStatus.PENDING_PAYMENT, PredictionStatus.EXPIRED, agora);
+        if (expiradas > 0) {
+            log.info("{} previsões temáticas pendentes expiradas", expiradas);
+            avisar.forEach(notificador::notificar);
+        }
+    }
+
+    /**
+     * Registra a notificação de pagamento sem manter transação aberta durante as chamadas externas: a consulta
+     * ao Mercado Pago roda fora de transação, a confirmação é uma transação curta e a mensagem da IA é gerada
+     * depois, em segundo plano ({@link #gerarMensagemEmSegundoPlano(UUID)}).
+     *
+     * @return {@code false} se o pagamento ainda não está aprovado (ou não pôde ser consultado)
+     */
+    public boolean registrarNotificacaoPagamento(String paymentId) {
+        Optional<String> preferenceId = mercadoPagoClient.extrairPreferenceIdDePagamento(paymentId);
+        preferenceId
+                .map(id -> transactionTemplate.execute(status -> confirmarPagamento(id)))
+                .ifPresent(predictionId -> {
+                    notificador.notificar(predictionId);
+                    gerarMensagemEmSegundoPlano(predictionId);
                 });
+        return preferenceId.isPresent();
     }
 
-    private void confirmarPagamento(ThemedPrediction prediction) {
+    /**
+     * Marca a previsão como paga e devolve o id dela, ou {@code null} se não havia nada a confirmar.
+     */
+    private UUID confirmarPagamento(String preferenceId) {
+        ThemedPrediction prediction = repository.findByPreferenceId(preferenceId).orElse(null);
+        if (prediction == null) {
+            return null;
+        }
         if (prediction.getStatus() == PredictionStatus.PAID) {
-            return;
+            log.info("Pagamento já processado para preferenceId {}", preferenceId);
+            return null;
+        }
+        if (prediction.getExpiresAt() != null && prediction.getExpiresAt().isBefore(LocalDateTime.now())) {
+            prediction.setStatus(PredictionStatus.EXPIRED);
+            log.info("Pagamento recebido após expiração para preferenceId {}", preferenceId);
+            return null;
         }
         prediction.setStatus(PredictionStatus.PAID);
-        prediction.setMensagemIa(gerarMensagemIa(prediction));
-        prediction.setMensagemGeradaEm(LocalDateTime.now());
+        log.info("Pagamento confirmado para preferenceId {}", preferenceId);
+        return prediction.getId();
+    }
+
+    private void gerarMensagemEmSegundoPlano(UUID predictionId) {
+        if (!mensagensEmGeracao.add(predictionId)) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> repository.findById(predictionId), previsaoExecutor)
+                .thenCompose(prediction -> prediction
+                        .filter(p -> p.getMensagemIa() == null)
+                        .map(this::gerarMensagemIa)
+                        .orElse(CompletableFuture.completedFuture(null)))
+                .thenAcceptAsync(mensagem -> {
+                    if (mensagem != null) {
+                        transactionTemplate.executeWithoutResult(status -> salvarMensagem(predictionId, mensagem));
+                        notificador.notificar(predictionId);
+                    }
+                }, previsaoExecutor)
+                .whenComplete((v, ex) -> {
+                    mensagensEmGeracao.remove(predictionId);
+                    if (ex != null) {
+                        log.warn("Falha ao gerar mensagem da previsão {}: {}", predictionId, ex.getMessage());
+                    }
+                });
+    }
+
+    private void salvarMensagem(UUID predictionId, String mensagem) {
+        repository.findById(predictionId)
+                .filter(p -> p.getMensagemIa() == null)
+                .ifPresent(prediction -> {
+                    prediction.setMensagemIa(mensagem);
+                    prediction.setMensagemGeradaEm(LocalDateTime.now());
+                    log.info("Mensagem gerada para a previsão {}", predictionId);
+                });
+    }
+
+    /**
+     * Retoma previsões pagas que ficaram sem mensagem (ex.: reinício da aplicação durante a geração).
+     */
+    @Scheduled(fixedDelayString = "${previsao.mensagem.recuperacao-intervalo:PT1M}")
+    public void recuperarMensagensPendentes() {
+        repository.findByStatusAndMensagemIaIsNullAndAtualizadoEmBefore(
+                        PredictionStatus.PAID, LocalDateTime.now().minus(RECUPERACAO_APOS))
+                .forEach(prediction -> {
+                    log.info("Retomando geração de mensagem da previsão {}", prediction.getId());
+                    gerarMensagemEmSegundoPlano(prediction.getId());
+                });
     }
 
     private boolean possuiTokenAtivo(String activePaymentToken) {
@@ -204,17 +373,20 @@ public class ThematicPredictionService {
         return VALOR_BASE.multiply(BigDecimal.ONE.subtract(DESCONTO)).setScale(2, RoundingMode.HALF_UP);
     }
 
-    private String gerarMensagemIa(ThemedPrediction prediction) {
+    private CompletableFuture<String> gerarMensagemIa(ThemedPrediction prediction) {
         try {
-            return nlpService.generateThematicPrediction(
+            return nlpService.generateThematicPredictionAsync(
                     prediction.getTema(),
                     prediction.getNomeUsuario(),
                     prediction.getNomePar(),
                     prediction.getSentimento()
-            );
+            ).exceptionally(ex -> {
+                log.warn("Falha ao gerar mensagem temática via IA: {}", ex.getMessage());
+                return fallbackMensagem(prediction);
+            });
         } catch (Exception ex) {
             log.warn("Falha ao gerar mensagem temática via IA: {}", ex.getMessage());
-            return fallbackMensagem(prediction);
+            return CompletableFuture.completedFuture(fallbackMensagem(prediction));
         }
     }
 
@@ -0,0 +1,186 @@
+package com.logicalastrology.service;
+
+import com.logicalastrology.config.WebhookProperties;
+import com.logicalastrology.model.WebhookEventStatus;
+import com.logicalastrology.repository.WebhookEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caixa de entrada persistente das notificações de pagamento. O webhook grava o evento
+ * ({@link #registrar(String)}) e o entrega direto ao {@code webhookExecutor} quando há vaga, com no máximo
+ * {@code webhook.concurrency} em andamento. Um agendador lento ({@code webhook.poll-interval}) só recolhe
+ * as novas tentativas com espera exponencial e os eventos que ficaram sem vaga ou foram devolvidos à fila.
+ */
+@Slf4j
+@Service
+public class WebhookInboxService {
+
+    private static final int TAMANHO_ERRO = 1000;
+
+    private final WebhookEventRepository repository;
+    private final ThematicPredictionService predictionService;
+    private final WebhookProperties properties;
+    private final Executor webhookExecutor;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicBoolean haProntosEsperando = new AtomicBoolean();
+
+    public WebhookInboxService(WebhookEventRepository repository,
+                               ThematicPredictionService predictionService,
+                               WebhookProperties properties,
+                               @Qualifier("webhookExecutor") Executor webhookExecutor) {
+        this.repository = repository;
+        this.predictionService = predictionService;
+        this.properties = properties;
+        this.webhookExecutor = webhookExecutor;
+    }
+
+    /**
+     * Enfileira a notificação do pagamento. Uma notificação repetida de pagamento ainda não concluído
+     * (ex.: Pix ou boleto que ficou pendente até esgotar as tentativas) volta para a fila com as tentativas
+     * zeradas, já que costuma anunciar a aprovação. Devolve {@code false} se o pagamento já foi processado.
+     */
+    public boolean registrar(String paymentId) {
+        LocalDateTime agora = LocalDateTime.now();
+        try {
+            if (repository.inserir(paymentId, agora) > 0) {
+                despachar(paymentId, agora);
+                return true;
+            }
+        } catch (DataIntegrityViolationException ex) {
+            // outra requisição inseriu o mesmo id ao mesmo tempo
+        }
+        if (repository.reabrir(paymentId, WebhookEventStatus.DONE, WebhookEventStatus.PROCESSING,
+                WebhookEventStatus.PENDING, agora) > 0) {
+            log.debug("Notificação repetida para o pagamento {}; reagendando para agora.", paymentId);
+            despachar(paymentId, agora);
+            return true;
+        }
+        log.debug("Notificação repetida para o pagamento {} já processado; ignorando.", paymentId);
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.poll-interval:PT30S}")
+    public void processarPendentes() {
+        int livres = Math.max(1, properties.getConcurrency()) - emAndamento.get();
+        if (livres <= 0) {
+            haProntosEsperando.set(true);
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        List<String> prontos = repository.findProntos(WebhookEventStatus.PENDING, agora, PageRequest.of(0, livres));
+        if (prontos.size() == livres) {
+            // a página pode não ter trazido todos; quem terminar primeiro busca o restante
+            haProntosEsperando.set(true);
+        }
+        for (String paymentId : prontos) {
+            if (!despachar(paymentId, agora)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reivindica o evento e o entrega ao executor se houver vaga. Devolve {@code false} quando não há vaga;
+     * o evento continua pendente e é buscado assim que um processamento terminar.
+     */
+    private boolean despachar(String paymentId, LocalDateTime agora) {
+        if (!reservarVaga()) {
+            haProntosEsperando.set(true);
+            return false;
+        }
+        if (repository.trocarStatus(paymentId, WebhookEventStatus.PENDING, WebhookEventStatus.PROCESSING, agora) == 0) {
+            emAndamento.decrementAndGet();
+            return true;
+        }
+        try {
+            webhookExecutor.execute(() -> processar(paymentId));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            emAndamento.decrementAndGet();
+            repository.trocarStatus(paymentId, WebhookEventStatus.PROCESSING, WebhookEventStatus.PENDING, LocalDateTime.now());
+            return false;
+        }
+    }
+
+    private boolean reservarVaga() {
+        int limite = Math.max(1, properties.getConcurrency());
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= limite) {
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void processar(String paymentId) {
+        try {
+            if (predictionService.registrarNotificacaoPagamento(paymentId)) {
+                repository.trocarStatus(paymentId, WebhookEventStatus.PROCESSING, WebhookEventStatus.DONE, LocalDateTime.now());
+            } else {
+                // o Mercado Pago notifica o mesmo pagamento enquanto ele muda de status; espera a aprovação
+                reagendar(paymentId, "Pagamento ainda não aprovado");
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Falha ao processar notificação do pagamento {}: {}", paymentId, ex.getMessage());
+            reagendar(paymentId, ex.getMessage());
+        } finally {
+            emAndamento.decrementAndGet();
+        }
+        if (haProntosEsperando.getAndSet(false)) {
+            processarPendentes();
+        }
+    }
+
+    private void reagendar(String paymentId, String erro) {
+        repository.findById(paymentId).ifPresent(evento -> {
+            int tentativas = evento.getTentativas() + 1;
+            LocalDateTime agora = LocalDateTime.now();
+            boolean desistir = tentativas >= properties.getMaxAttempts();
+            repository.reagendar(paymentId,
+                    desistir ? WebhookEventStatus.FAILED : WebhookEventStatus.PENDING,
+                    tentativas,
+                    agora.plus(espera(tentativas)),
+                    erro != null && erro.length() > TAMANHO_ERRO ? erro.substring(0, TAMANHO_ERRO) : erro,
+                    agora);
+            if (desistir) {
+                log.warn("Notificação do pagamento {} descartada após {} tentativas: {}", paymentId, tentativas, erro);
+            }
+        });
+    }
+
+    private Duration espera(int tentativas) {
+        Duration espera = properties.getInitialBackoff().multipliedBy(1L << Math.min(tentativas - 1, 20));
+        return espera.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : espera;
+    }
+
+    /**
+     * Devolve à fila eventos presos em processamento e apaga os finalizados há mais tempo que a retenção.
+     */
+    @Scheduled(cron = "0 */5 * * * *")
+    public void manutencao() {
+        LocalDateTime agora = LocalDateTime.now();
+        int liberados = repository.liberarTravados(WebhookEventStatus.PROCESSING, WebhookEventStatus.PENDING,
+                agora.minus(properties.getLease()), agora);
+        int removidos = repository.deleteFinalizadosAntesDe(List.of(WebhookEventStatus.DONE, WebhookEventStatus.FAILED),
+                agora.minus(properties.getRetention()));
+        if (liberados + removidos > 0) {
+            log.info("Caixa de webhooks: {} eventos devolvidos à fila e {} antigos removidos", liberados, removidos);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiCircuitBreakerTest {
+
+    private static final long RAPIDA = Duration.ofMillis(100).toNanos();
+
+    private AiProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AiProperties();
+        AiProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        config.setWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallDuration(Duration.ofSeconds(10));
+        config.setSlowCallRateThreshold(80);
+        config.setHalfOpenCalls(2);
+    }
+
+    @Test
+    void abreQuandoTaxaDeFalhasAtingeOLimite() {
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+
+        registrar(breaker, true);
+        registrar(breaker, true);
+        registrar(breaker, false);
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+
+        registrar(breaker, false);
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.OPEN);
+        assertThat(breaker.permitir()).isEmpty();
+        assertThat(breaker.estatisticas().getRecusadas()).isEqualTo(1);
+    }
+
+    @Test
+    void naoAbreAntesDoMinimoDeChamadas() {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+
+        registrar(breaker, false);
+        registrar(breaker, false);
+        registrar(breaker, false);
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+    }
+
+    @Test
+    void abreQuandoChamadasLentasAtingemOLimite() {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+        long lenta = Duration.ofSeconds(11).toNanos();
+
+        for (int i = 0; i < 4; i++) {
+            breaker.registrar(breaker.permitir().orElseThrow(), lenta, true);
+        }
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.OPEN);
+    }
+
+    @Test
+    void chamadaSemLimiteDeLentidaoNaoContaComoLenta() {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+        long longa = Duration.ofMinutes(2).toNanos();
+
+        for (int i = 0; i < 4; i++) {
+            breaker.registrar(breaker.permitir().orElseThrow(), longa, null, true);
+        }
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+        assertThat(breaker.estatisticas().getTaxaLentas()).isZero();
+    }
+
+    @Test
+    void limiteLentaCresceComOPrazoDaChamada() {
+        properties.setTimeout(Duration.ofSeconds(30));
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+
+        assertThat(breaker.limiteLenta(Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(breaker.limiteLenta(Duration.ofSeconds(5))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(breaker.limiteLenta(Duration.ofSeconds(90))).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void meioAbertoFechaQuandoTodasAsChamadasDeTesteTemSucesso() {
+        AiCircuitBreaker breaker = abertoComTestesImediatos();
+
+        AiCircuitBreaker.Permissao primeira = breaker.permitir().orElseThrow();
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.HALF_OPEN);
+        AiCircuitBreaker.Permissao segunda = breaker.permitir().orElseThrow();
+        assertThat(breaker.permitir()).as("só half-open-calls chamadas de teste").isEmpty();
+
+        breaker.registrar(primeira, RAPIDA, true);
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.HALF_OPEN);
+        breaker.registrar(segunda, RAPIDA, true);
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+        assertThat(breaker.estatisticas().getChamadasNaJanela()).isZero();
+    }
+
+    @Test
+    void meioAbertoReabreQuandoUmaChamadaDeTesteFalha() {
+        AiCircuitBreaker breaker = abertoComTestesImediatos();
+
+        breaker.registrar(breaker.permitir().orElseThrow(), RAPIDA, false);
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.OPEN);
+    }
+
+    @Test
+    void ignoraResultadoDeChamadaLiberadaAntesDaMudancaDeEstado() {
+        properties.getCircuitBreaker().setOpenDuration(Duration.ZERO);
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+        AiCircuitBreaker.Permissao antiga = breaker.permitir().orElseThrow();
+        for (int i = 0; i < 4; i++) {
+            registrar(breaker, false);
+        }
+        AiCircuitBreaker.Permissao teste = breaker.permitir().orElseThrow();
+
+        breaker.registrar(antiga, RAPIDA, true);
+        breaker.registrar(antiga, RAPIDA, true);
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.HALF_OPEN);
+
+        breaker.registrar(teste, RAPIDA, true);
+        breaker.registrar(breaker.permitir().orElseThrow(), RAPIDA, true);
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+    }
+
+    @Test
+    void liberarDevolveAVagaDeTeste() {
+        AiCircuitBreaker breaker = abertoComTestesImediatos();
+        AiCircuitBreaker.Permissao primeira = breaker.permitir().orElseThrow();
+        AiCircuitBreaker.Permissao segunda = breaker.permitir().orElseThrow();
+        assertThat(breaker.permitir()).isEmpty();
+
+        breaker.liberar(segunda);
+        AiCircuitBreaker.Permissao substituta = breaker.permitir().orElseThrow();
+        breaker.registrar(primeira, RAPIDA, true);
+        breaker.registrar(substituta, RAPIDA, true);
+
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+    }
+
+    @Test
+    void desligadoSempreLibera() {
+        properties.getCircuitBreaker().setEnabled(false);
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+
+        for (int i = 0; i < 10; i++) {
+            registrar(breaker, false);
+        }
+
+        assertThat(breaker.permitir()).isPresent();
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.CLOSED);
+    }
+
+    private AiCircuitBreaker abertoComTestesImediatos() {
+        properties.getCircuitBreaker().setOpenDuration(Duration.ZERO);
+        AiCircuitBreaker breaker = new AiCircuitBreaker(properties);
+        for (int i = 0; i < 4; i++) {
+            registrar(breaker, false);
+        }
+        assertThat(breaker.getEstado()).isEqualTo(AiCircuitBreaker.Estado.OPEN);
+        return breaker;
+    }
+
+    private static void registrar(AiCircuitBreaker breaker, boolean sucesso) {
+        breaker.registrar(breaker.permitir().orElseThrow(), RAPIDA, sucesso);
+    }
+}
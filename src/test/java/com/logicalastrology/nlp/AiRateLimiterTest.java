@@ -0,0 +1,117 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiRateLimiterTest {
+
+    private AiProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AiProperties();
+        properties.getRateLimit().setRequestsPerMinute(0);
+        properties.getRateLimit().setTokensPerMinute(0);
+    }
+
+    @Test
+    void semLimitesNuncaEspera() {
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(10_000)).isZero();
+        }
+    }
+
+    @Test
+    void esgotaAsRequisicoesPorMinutoEInformaAEspera() {
+        properties.getRateLimit().setRequestsPerMinute(2);
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(1)).isZero();
+        assertThat(limiter.tryAcquire(1)).isZero();
+
+        // uma requisição volta a cada 30 s
+        long espera = limiter.tryAcquire(1);
+        assertThat(espera).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(30));
+        assertThat(espera).isGreaterThan(TimeUnit.SECONDS.toNanos(29));
+    }
+
+    @Test
+    void recusaQuandoOsTokensEstimadosNaoCabem() {
+        properties.getRateLimit().setTokensPerMinute(1000);
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(800)).isZero();
+        assertThat(limiter.tryAcquire(800)).isPositive();
+    }
+
+    @Test
+    void estimativaMaiorQueACapacidadeNaoBloqueiaParaSempre() {
+        properties.getRateLimit().setTokensPerMinute(100);
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(500)).isZero();
+    }
+
+    @Test
+    void usoRealMenorQueAEstimativaDevolveTokens() {
+        properties.getRateLimit().setTokensPerMinute(1000);
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(800)).isZero();
+        limiter.registrarUso(800, 100);
+
+        assertThat(limiter.tryAcquire(800)).isZero();
+    }
+
+    @Test
+    void usoRealMaiorQueAEstimativaConsomeADiferenca() {
+        properties.getRateLimit().setTokensPerMinute(1000);
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(100)).isZero();
+        limiter.registrarUso(100, 900);
+
+        // sobram 100 dos 1000 tokens
+        assertThat(limiter.tryAcquire(200)).isPositive();
+    }
+
+    @Test
+    void usoRealDesconhecidoMantemAEstimativa() {
+        properties.getRateLimit().setTokensPerMinute(1000);
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        assertThat(limiter.tryAcquire(600)).isZero();
+        limiter.registrarUso(600, 0);
+
+        assertThat(limiter.tryAcquire(600)).isPositive();
+    }
+
+    @Test
+    void pausaPedidaPeloProvedorSuspendeAsChamadas() {
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        limiter.pausar(Duration.ofMinutes(1));
+
+        long espera = limiter.tryAcquire(1);
+        assertThat(espera).isGreaterThan(TimeUnit.SECONDS.toNanos(59))
+                .isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(1));
+    }
+
+    @Test
+    void pausaMaisCurtaNaoEncurtaAPausaAtual() {
+        AiRateLimiter limiter = new AiRateLimiter(properties);
+
+        limiter.pausar(Duration.ofMinutes(1));
+        limiter.pausar(Duration.ofSeconds(1));
+
+        assertThat(limiter.tryAcquire(1)).isGreaterThan(TimeUnit.SECONDS.toNanos(59));
+    }
+}
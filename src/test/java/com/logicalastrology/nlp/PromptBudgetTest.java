@@ -0,0 +1,85 @@
+package com.logicalastrology.nlp;
+
+import com.logicalastrology.config.AiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptBudgetTest {
+
+    private AiProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AiProperties();
+        properties.getPrompt().setMaxInputTokens(0);
+        properties.getPrompt().setSimilarityThreshold(0.8);
+        properties.getPrompt().setShingleSize(3);
+    }
+
+    @Test
+    void estimaTokensArredondandoParaCima() {
+        assertThat(PromptBudget.estimarTokens(0)).isZero();
+        assertThat(PromptBudget.estimarTokens(4)).isEqualTo(1);
+        assertThat(PromptBudget.estimarTokens(5)).isEqualTo(2);
+    }
+
+    @Test
+    void descartaTextosQuaseIdenticosMantendoOPrimeiro() {
+        PromptBudget budget = new PromptBudget(properties);
+        String original = "Hoje a lua favorece conversas sinceras com quem você ama e novos projetos no trabalho.";
+        String copia = "Hoje a lua favorece conversas sinceras com quem você ama e novos projetos no trabalho!";
+        String outro = "Cuide da saúde e evite gastos por impulso durante a semana.";
+
+        List<String> resultado = budget.aplicar("aries", List.of(original, outro, copia));
+
+        assertThat(resultado).containsExactly(original, outro);
+    }
+
+    @Test
+    void mantemTextosDiferentesNaOrdemOriginal() {
+        PromptBudget budget = new PromptBudget(properties);
+        List<String> textos = List.of("Dia de agir com coragem.", "Momento de descansar e refletir.", "Boas notícias chegam.");
+
+        assertThat(budget.aplicar("touro", textos)).containsExactlyElementsOf(textos);
+    }
+
+    @Test
+    void semOrcamentoNaoCortaOsTextos() {
+        PromptBudget budget = new PromptBudget(properties);
+        String longo = "palavra ".repeat(1000).trim();
+
+        assertThat(budget.aplicar("leao", List.of(longo))).containsExactly(longo);
+    }
+
+    @Test
+    void sobraDeTextoCurtoVaiParaOsDemais() {
+        // 10 tokens = 40 caracteres; o texto curto usa 10 e o longo fica com 30
+        properties.getPrompt().setMaxInputTokens(10);
+        PromptBudget budget = new PromptBudget(properties);
+        String curto = "Seja leal";
+        String longo = "aaaa bbbb cccc dddd eeee ffff gggg hhhh iiii jjjj kkkk";
+
+        List<String> resultado = budget.aplicar("virgem", List.of(longo, curto));
+
+        assertThat(resultado.get(1)).isEqualTo(curto);
+        assertThat(resultado.get(0)).isEqualTo("aaaa bbbb cccc dddd eeee ffff…");
+        assertThat(resultado.get(0).length() - 1).isLessThanOrEqualTo(40 - curto.length());
+    }
+
+    @Test
+    void divideOOrcamentoIgualmenteEntreTextosLongos() {
+        properties.getPrompt().setMaxInputTokens(10);
+        PromptBudget budget = new PromptBudget(properties);
+        String primeiro = "x".repeat(100);
+        String segundo = "y".repeat(100);
+
+        List<String> resultado = budget.aplicar("libra", List.of(primeiro, segundo));
+
+        // sem espaços para quebrar, o corte é no limite exato de 20 caracteres de cada
+        assertThat(resultado).containsExactly("x".repeat(20) + "…", "y".repeat(20) + "…");
+    }
+}
@@ -0,0 +1,134 @@
+package com.logicalastrology.payment;
+
+import com.mercadopago.exceptions.MPException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ConsultaCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    void consultasSimultaneasCompartilhamUmaChamada() throws Exception {
+        ConsultaCache<Long, String> cache = new ConsultaCache<>(TTL);
+        AtomicInteger chamadas = new AtomicInteger();
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Object> resultados = new ConcurrentLinkedQueue<>();
+
+        Runnable consulta = () -> {
+            try {
+                resultados.add(cache.obter(1L, () -> {
+                    chamadas.incrementAndGet();
+                    consultando.countDown();
+                    aguardar(liberar);
+                    return "pref-1";
+                }));
+            } catch (Exception ex) {
+                resultados.add(ex);
+            }
+        };
+        Thread dona = new Thread(consulta);
+        dona.start();
+        assertThat(consultando.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Thread> esperando = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Thread thread = new Thread(consulta);
+            thread.start();
+            esperando.add(thread);
+        }
+        for (Thread thread : esperando) {
+            aguardarBloqueio(thread);
+        }
+        liberar.countDown();
+        dona.join(5000);
+        for (Thread thread : esperando) {
+            thread.join(5000);
+        }
+
+        assertThat(chamadas).hasValue(1);
+        assertThat(resultados).hasSize(8).containsOnly("pref-1");
+    }
+
+    @Test
+    void reaproveitaOValorDentroDoTtl() throws Exception {
+        ConsultaCache<Long, String> cache = new ConsultaCache<>(TTL);
+        AtomicInteger chamadas = new AtomicInteger();
+
+        cache.obter(1L, () -> "v" + chamadas.incrementAndGet());
+        String segundo = cache.obter(1L, () -> "v" + chamadas.incrementAndGet());
+
+        assertThat(segundo).isEqualTo("v1");
+        assertThat(chamadas).hasValue(1);
+    }
+
+    @Test
+    void ttlZeroNaoGuardaNada() throws Exception {
+        ConsultaCache<Long, String> cache = new ConsultaCache<>(Duration.ZERO);
+        AtomicInteger chamadas = new AtomicInteger();
+
+        cache.obter(1L, () -> "v" + chamadas.incrementAndGet());
+        cache.obter(1L, () -> "v" + chamadas.incrementAndGet());
+
+        assertThat(chamadas).hasValue(2);
+    }
+
+    @Test
+    void valorRecusadoPeloFiltroNaoFicaGuardado() throws Exception {
+        ConsultaCache<Long, String> cache = new ConsultaCache<>(TTL, "approved"::equals);
+
+        assertThat(cache.obter(1L, () -> "pending")).isEqualTo("pending");
+        assertThat(cache.obter(1L, () -> "approved")).isEqualTo("approved");
+        assertThat(cache.obter(1L, () -> "refunded")).isEqualTo("approved");
+    }
+
+    @Test
+    void falhaEPropagadaENaoFicaGuardada() throws Exception {
+        ConsultaCache<Long, String> cache = new ConsultaCache<>(TTL);
+
+        assertThatThrownBy(() -> cache.obter(1L, () -> {
+            throw new MPException("indisponível");
+        })).isInstanceOf(MPException.class).hasMessage("indisponível");
+
+        assertThat(cache.obter(1L, () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void errorNaConsultaNaoDeixaAChaveTravada() {
+        ConsultaCache<Long, String> cache = new ConsultaCache<>(TTL);
+
+        assertThatThrownBy(() -> cache.obter(1L, () -> {
+            throw new NoClassDefFoundError("sdk");
+        })).isInstanceOf(NoClassDefFoundError.class);
+
+        String depois = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.obter(1L, () -> "ok"));
+        assertThat(depois).isEqualTo("ok");
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void aguardarBloqueio(Thread thread) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() - limite < 0) {
+            Thread.sleep(5);
+        }
+    }
+}